@@ -0,0 +1,35 @@
+package com.strictgaming.elite.holograms.api.manager.database;
+
+import com.strictgaming.elite.holograms.api.hologram.Hologram;
+
+import java.io.IOException;
+
+/**
+ *
+ * Converts a single {@link Hologram} to and from bytes, for savers that store holograms one record at a time
+ * and leave the platform specific parts of the format to the platform
+ *
+ */
+public interface HologramCodec {
+
+    /**
+     *
+     * Encodes the hologram
+     *
+     * @param hologram The hologram
+     * @return The encoded hologram
+     * @throws IOException If the hologram can't be encoded
+     */
+    byte[] encode(Hologram hologram) throws IOException;
+
+    /**
+     *
+     * Decodes a hologram that was encoded with {@link #encode(Hologram)} and registers it with the platform
+     *
+     * @param data The encoded hologram
+     * @return The hologram, or null if it couldn't be created
+     * @throws IOException If the data is invalid
+     */
+    Hologram decode(byte[] data) throws IOException;
+
+}
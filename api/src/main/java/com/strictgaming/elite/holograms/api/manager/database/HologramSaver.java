@@ -5,6 +5,7 @@ import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -30,4 +31,27 @@ public interface HologramSaver {
      */
     void save(List<Hologram> holograms);
 
+    /**
+     *
+     * Saves all holograms, where only the holograms with the given ids changed since the last save.
+     * Savers that can't write part of their data can ignore the ids and save everything
+     *
+     * @param holograms Cached holograms
+     * @param changed The ids of the holograms that were changed, created or removed
+     */
+    default void save(List<Hologram> holograms, Set<String> changed) {
+        this.save(holograms);
+    }
+
+    /**
+     *
+     * Checks whether anything was ever written to the storage, even if every hologram in it was deleted
+     * since. Holograms are only carried over from another storage while this is false
+     *
+     * @return true if the storage has been written to
+     */
+    default boolean exists() {
+        return true;
+    }
+
 } 
\ No newline at end of file
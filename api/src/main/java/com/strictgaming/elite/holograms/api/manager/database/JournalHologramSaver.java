@@ -0,0 +1,543 @@
+package com.strictgaming.elite.holograms.api.manager.database;
+
+import com.strictgaming.elite.holograms.api.hologram.Hologram;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ *
+ * A {@link HologramSaver} that appends every change to a journal instead of rewriting all holograms.
+ * Each entry is either a put, holding the full encoded hologram, or a delete, so replaying entries
+ * twice gives the same result. Once the journal outgrows the holograms it describes it's compacted
+ * into a snapshot on a background thread.
+ *
+ * Files, all next to each other:
+ * - {@code <name>.snapshot} every hologram as of the last compaction, replaced atomically
+ * - {@code <name>.journal.compacting} the journal being folded into the next snapshot, if any
+ * - {@code <name>.journal} the entries written since
+ *
+ * Loading replays them in that order. A torn entry at the end of the journal, from a crash
+ * mid-write, fails its checksum and is dropped.
+ *
+ */
+public class JournalHologramSaver implements HologramSaver {
+
+    private static final Logger LOGGER = Logger.getLogger("EliteHolograms");
+
+    private static final int SNAPSHOT_MAGIC = 0x45484A53; // EHJS
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final HologramCodec codec;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File compactingFile;
+    private final File compactorTempFile;
+    private final int minCompactEntries;
+    private final Map<String, byte[]> records = new LinkedHashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EliteHolograms-Compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileOutputStream journal;
+    private int journalEntries = 0;
+    private boolean compacting = false;
+    private Future<?> compaction;
+
+    /**
+     * Bumped by every load, a compaction started before it must not replace the snapshot the load wrote
+     */
+    private long generation = 0L;
+
+    /**
+     *
+     * Creates a journal saver that compacts once the journal has more entries than there are holograms,
+     * and at least 1024
+     *
+     * @param baseFile The path the files are named after, without an extension
+     * @param codec The codec for the platform's holograms
+     */
+    public JournalHologramSaver(File baseFile, HologramCodec codec) {
+        this(baseFile, codec, 1024);
+    }
+
+    /**
+     *
+     * Creates a journal saver
+     *
+     * @param baseFile The path the files are named after, without an extension
+     * @param codec The codec for the platform's holograms
+     * @param minCompactEntries The fewest journal entries that can trigger a compaction
+     */
+    public JournalHologramSaver(File baseFile, HologramCodec codec, int minCompactEntries) {
+        this.codec = codec;
+        this.snapshotFile = new File(baseFile.getPath() + ".snapshot");
+        this.journalFile = new File(baseFile.getPath() + ".journal");
+        this.compactingFile = new File(baseFile.getPath() + ".journal.compacting");
+        this.compactorTempFile = new File(baseFile.getPath() + ".snapshot.compacting.tmp");
+        this.minCompactEntries = Math.max(1, minCompactEntries);
+
+        File parent = this.snapshotFile.getAbsoluteFile().getParentFile();
+
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Hologram> load() throws IOException {
+        this.closeJournal();
+        this.records.clear();
+        this.generation++;
+
+        // A compaction still in flight finishes against the old generation and throws its snapshot away
+        if (this.compaction == null || this.compaction.isDone()) {
+            this.compacting = false;
+        }
+
+        this.readSnapshot();
+        int replayed = this.replay(this.compactingFile);
+        replayed += this.replay(this.journalFile);
+
+        // Fold whatever was replayed into a fresh snapshot now, so the next start doesn't replay it again
+        if (replayed > 0 || this.compactingFile.exists()) {
+            writeSnapshot(this.snapshotFile, new File(this.snapshotFile.getPath() + ".tmp"), this.records);
+            Files.deleteIfExists(this.compactingFile.toPath());
+            Files.deleteIfExists(this.journalFile.toPath());
+        }
+
+        this.journalEntries = 0;
+
+        Map<String, Hologram> holograms = new HashMap<>();
+
+        for (Map.Entry<String, byte[]> entry : this.records.entrySet()) {
+            try {
+                Hologram hologram = this.codec.decode(entry.getValue());
+
+                if (hologram != null) {
+                    holograms.put(entry.getKey(), hologram);
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to decode hologram " + entry.getKey(), e);
+            }
+        }
+
+        return holograms;
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        return this.snapshotFile.exists() || this.compactingFile.exists() || this.journalFile.exists();
+    }
+
+    /**
+     *
+     * Saves every hologram. The saver isn't told which ones changed, so each one is encoded and compared with
+     * what was last written. Callers that know what changed use {@link #save(List, Set)} instead
+     *
+     */
+    @Override
+    public synchronized void save(List<Hologram> holograms) {
+        Map<String, Hologram> byId = this.index(holograms);
+        Set<String> changed = new HashSet<>(byId.keySet());
+        changed.addAll(this.records.keySet());
+        this.append(byId, changed);
+    }
+
+    @Override
+    public synchronized void save(List<Hologram> holograms, Set<String> changed) {
+        Set<String> ids = new HashSet<>();
+
+        for (String id : changed) {
+            ids.add(id.toLowerCase());
+        }
+
+        this.append(this.index(holograms), ids);
+    }
+
+    private Map<String, Hologram> index(List<Hologram> holograms) {
+        Map<String, Hologram> byId = new HashMap<>();
+
+        for (Hologram hologram : holograms) {
+            if (hologram != null && hologram.getId() != null) {
+                byId.put(hologram.getId().toLowerCase(), hologram);
+            }
+        }
+
+        return byId;
+    }
+
+    private void append(Map<String, Hologram> byId, Set<String> ids) {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        Map<String, byte[]> written = new HashMap<>();
+        long journalLength = -1;
+
+        try {
+            for (String id : ids) {
+                Hologram hologram = byId.get(id);
+                byte[] previous = this.records.get(id);
+
+                if (hologram == null) {
+                    if (previous != null) {
+                        writeEntry(batch, OP_DELETE, id, new byte[0]);
+                        written.put(id, null);
+                    }
+
+                    continue;
+                }
+
+                byte[] encoded = this.codec.encode(hologram);
+
+                // Savers aren't told what changed when everything is saved, unchanged holograms are skipped here
+                if (encoded == null || Arrays.equals(encoded, previous)) {
+                    continue;
+                }
+
+                writeEntry(batch, OP_PUT, id, encoded);
+                written.put(id, encoded);
+            }
+
+            if (written.isEmpty()) {
+                return;
+            }
+
+            FileOutputStream out = this.openJournal();
+            journalLength = out.getChannel().size();
+            batch.writeTo(out);
+            out.flush();
+            out.getChannel().force(false);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to append to the hologram journal", e);
+            this.truncateJournal(journalLength);
+            return;
+        }
+
+        // Only once the entries are on disk, so a failed write is retried by the next save
+        for (Map.Entry<String, byte[]> entry : written.entrySet()) {
+            if (entry.getValue() == null) {
+                this.records.remove(entry.getKey());
+            } else {
+                this.records.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        this.journalEntries += written.size();
+
+        if (this.journalEntries >= Math.max(this.minCompactEntries, this.records.size())) {
+            this.compact();
+        }
+    }
+
+    /**
+     *
+     * Rolls the journal over and writes a snapshot of the current holograms on the compaction thread.
+     * Saves can carry on appending to a new journal while the snapshot is written
+     *
+     */
+    public synchronized void compact() {
+        if (this.compacting) {
+            return;
+        }
+
+        try {
+            this.closeJournal();
+            this.rollOver();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to roll over the hologram journal", e);
+            return;
+        }
+
+        final Map<String, byte[]> snapshot = new LinkedHashMap<>(this.records);
+        final long startedGeneration = this.generation;
+        this.journalEntries = 0;
+        this.compacting = true;
+
+        this.compaction = this.compactor.submit(() -> {
+            try {
+                writeSnapshotFile(this.compactorTempFile, snapshot);
+
+                // Only moved into place under the lock, a load since then has already folded the rolled over
+                // journal into a newer snapshot that this one would overwrite
+                synchronized (this) {
+                    if (startedGeneration != this.generation) {
+                        Files.deleteIfExists(this.compactorTempFile.toPath());
+                    } else {
+                        moveIntoPlace(this.compactorTempFile, this.snapshotFile);
+                        Files.deleteIfExists(this.compactingFile.toPath());
+                    }
+
+                    this.compacting = false;
+                }
+            } catch (Exception e) {
+                // The old snapshot and the rolled over journal are both still there, so nothing is lost. The next
+                // time the journal crosses the threshold it's rolled over onto the same file and compaction retried
+                LOGGER.log(Level.SEVERE, "Failed to compact the hologram journal, retrying once the journal grows again", e);
+
+                synchronized (this) {
+                    try {
+                        Files.deleteIfExists(this.compactorTempFile.toPath());
+                    } catch (IOException deleteError) {
+                        LOGGER.log(Level.WARNING, "Failed to delete " + this.compactorTempFile, deleteError);
+                    }
+
+                    this.compacting = false;
+                }
+            }
+        });
+    }
+
+    /**
+     *
+     * Moves the journal aside for compaction. A journal left behind by a failed compaction isn't in any
+     * snapshot yet, so the new entries are appended to it instead of replacing it
+     *
+     */
+    private void rollOver() throws IOException {
+        if (!this.journalFile.exists()) {
+            return;
+        }
+
+        if (!this.compactingFile.exists()) {
+            Files.move(this.journalFile.toPath(), this.compactingFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        try (FileOutputStream out = new FileOutputStream(this.compactingFile, true)) {
+            Files.copy(this.journalFile.toPath(), out);
+            out.flush();
+            out.getChannel().force(false);
+        }
+
+        Files.delete(this.journalFile.toPath());
+    }
+
+    private FileOutputStream openJournal() throws IOException {
+        if (this.journal == null) {
+            this.journal = new FileOutputStream(this.journalFile, true);
+        }
+
+        return this.journal;
+    }
+
+    /**
+     *
+     * Cuts off a partly written batch, so entries appended later aren't stuck behind a torn one
+     *
+     */
+    private void truncateJournal(long length) {
+        if (length < 0 || this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.getChannel().truncate(length);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to truncate the hologram journal", e);
+            this.closeJournal();
+        }
+    }
+
+    private void closeJournal() {
+        if (this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close the hologram journal", e);
+        }
+
+        this.journal = null;
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!this.snapshotFile.exists()) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.snapshotFile.toPath()));
+
+        if (buffer.remaining() < 12 || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a hologram snapshot: " + this.snapshotFile);
+        }
+
+        int version = buffer.getInt();
+
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported hologram snapshot version " + version);
+        }
+
+        int count = buffer.getInt();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                String id = readString(buffer);
+                this.records.put(id, readBytes(buffer));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated hologram snapshot: " + this.snapshotFile, e);
+        }
+    }
+
+    private int replay(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        int replayed = 0;
+        int validLength = 0;
+
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+
+            if (length <= 0 || buffer.remaining() < length + 8) {
+                break;
+            }
+
+            byte[] body = new byte[length];
+            buffer.get(body);
+            long checksum = buffer.getLong();
+
+            if (checksum(body) != checksum) {
+                break;
+            }
+
+            ByteBuffer entry = ByteBuffer.wrap(body);
+
+            try {
+                byte op = entry.get();
+                String id = readString(entry);
+                byte[] data = readBytes(entry);
+
+                if (op == OP_PUT) {
+                    this.records.put(id, data);
+                } else if (op == OP_DELETE) {
+                    this.records.remove(id);
+                }
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+
+            replayed++;
+            validLength = buffer.position();
+        }
+
+        if (validLength < buffer.capacity()) {
+            LOGGER.warning("Dropping " + (buffer.capacity() - validLength) + " bytes of incomplete entries from " + file);
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        return replayed;
+    }
+
+    private static void writeEntry(ByteArrayOutputStream out, byte op, String id, byte[] data) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        body.writeByte(op);
+        writeString(body, id);
+        writeBytes(body, data);
+        body.flush();
+
+        byte[] entry = bodyBytes.toByteArray();
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(entry.length);
+        header.write(entry);
+        header.writeLong(checksum(entry));
+        header.flush();
+    }
+
+    private static void writeSnapshot(File file, File tempFile, Map<String, byte[]> records) throws IOException {
+        writeSnapshotFile(tempFile, records);
+        moveIntoPlace(tempFile, file);
+    }
+
+    private static void writeSnapshotFile(File tempFile, Map<String, byte[]> records) throws IOException {
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(records.size());
+
+            for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+                writeString(out, entry.getKey());
+                writeBytes(out, entry.getValue());
+            }
+
+            out.flush();
+            fileOut.getChannel().force(true);
+        }
+    }
+
+    private static void moveIntoPlace(File tempFile, File file) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        return new String(readBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+
+    private static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+}
@@ -27,8 +27,12 @@ import com.strictgaming.elite.holograms.forge20.command.HologramsAnimateLineComm
 import com.strictgaming.elite.holograms.forge20.config.HologramsConfig;
 import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologram;
 import com.strictgaming.elite.holograms.forge20.hologram.HologramManager;
+import com.strictgaming.elite.holograms.forge20.hologram.HologramSaveQueue;
+import com.strictgaming.elite.holograms.forge20.hologram.HologramScheduler;
+import com.strictgaming.elite.holograms.forge20.hologram.ScoreboardSnapshots;
 import com.strictgaming.elite.holograms.forge20.hologram.manager.ForgeHologramFactory;
 import com.strictgaming.elite.holograms.forge20.hologram.manager.ForgeHologramManager;
+import com.strictgaming.elite.holograms.forge20.util.UtilPacket;
 import com.strictgaming.elite.holograms.forge20.util.UtilPlaceholder;
 import net.minecraft.network.chat.Component;
 import net.minecraftforge.common.MinecraftForge;
@@ -42,7 +46,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
-import com.google.common.collect.Lists;
 
 import java.io.IOException;
 
@@ -81,6 +84,11 @@ public class Forge20Holograms implements PlatformHologramManager {
             LOGGER.error("Error loading config", e);
         }
         
+        UtilPlaceholder.setServerRefreshInterval(this.config.getPlaceholderRefreshTicks());
+        HologramSaveQueue.setWindow(this.config.getSaveWindowMillis());
+        ScoreboardSnapshots.setEventDriven(this.config.isScoreboardEventDriven());
+        HologramScheduler.setBudget(this.config.getTickBudgetNanos());
+        
         // Initialize manager helpers if needed (this is safe to call multiple times)
         HologramManager.preInit();
         
@@ -107,8 +115,9 @@ public class Forge20Holograms implements PlatformHologramManager {
         UtilPlaceholder.setServerStartTime();
         
         try {
-            HologramManager.load();
-            LOGGER.info("Holograms loaded successfully");
+            // Json storage keeps loading over the next ticks, those holograms spawn as they're created
+            HologramManager.loadStaged();
+            LOGGER.info("Hologram loading started");
             
             // Force refresh visibility for all loaded holograms to ensure they spawn properly
             for (Hologram hologram : HologramManager.getAllHolograms()) {
@@ -148,7 +157,7 @@ public class Forge20Holograms implements PlatformHologramManager {
             // Use a separate thread with timeout to prevent hanging during save
             Thread saveThread = new Thread(() -> {
                 try {
-                    HologramManager.getSaver().save(Lists.newArrayList(HologramManager.getAllHolograms()));
+                    HologramManager.saveSync();
                     HologramManager.saveScoreboardHologramsSync();
                 } catch (Exception e) {
                     LOGGER.error("Error in save thread during shutdown", e);
@@ -174,6 +183,12 @@ public class Forge20Holograms implements PlatformHologramManager {
     public void onServerTick(net.minecraftforge.event.TickEvent.ServerTickEvent event) {
         if (event.phase == net.minecraftforge.event.TickEvent.Phase.END) {
             HologramManager.tick();
+
+            // Send everything the holograms queued this tick as one bundle per player
+            UtilPacket.flush();
+
+            // Let the server placeholder values go stale for the next tick
+            UtilPlaceholder.tick();
         }
     }
 
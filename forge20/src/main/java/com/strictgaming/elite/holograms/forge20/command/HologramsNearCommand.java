@@ -51,7 +51,6 @@ public class HologramsNearCommand implements Command<CommandSourceStack> {
         
         try {
             // Get player location
-            String worldName = player.level().dimension().location().toString();
             double playerX = player.getX();
             double playerY = player.getY();
             double playerZ = player.getZ();
@@ -59,20 +58,11 @@ public class HologramsNearCommand implements Command<CommandSourceStack> {
             // Find nearby holograms
             List<HologramDistance> nearbyHolograms = new ArrayList<>();
             
-            for (Hologram hologram : HologramManager.getHolograms()) {
-                // Skip holograms in different worlds
-                if (!hologram.getWorldName().equals(worldName)) {
-                    continue;
-                }
-                
+            for (Hologram hologram : HologramManager.getNearby(player.level(), playerX, playerY, playerZ, DEFAULT_SEARCH_RADIUS)) {
                 // Calculate distance
                 double[] loc = hologram.getLocation();
                 double distance = calculateDistance(playerX, playerY, playerZ, loc[0], loc[1], loc[2]);
-                
-                // Add to list if within range
-                if (distance <= DEFAULT_SEARCH_RADIUS) {
-                    nearbyHolograms.add(new HologramDistance(hologram, distance));
-                }
+                nearbyHolograms.add(new HologramDistance(hologram, distance));
             }
             
             // Sort by distance
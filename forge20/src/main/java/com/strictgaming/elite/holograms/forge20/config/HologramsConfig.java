@@ -22,8 +22,14 @@ public class HologramsConfig {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     
     private String storageLocation = "config/elite-holograms";
+    private String storageType = "json";
     private int defaultRange = 30;
     private boolean debug = false;
+    private int placeholderRefreshTicks = 1;
+    private long saveWindowMillis = 1000L;
+    private int loadSpawnBudget = 64;
+    private String scoreboardUpdates = "interval";
+    private long tickBudgetNanos = 2000000L;
 
     public HologramsConfig() {
         // Default constructor
@@ -58,6 +64,10 @@ public class HologramsConfig {
                 this.storageLocation = json.get("storage_location").getAsString();
             }
             
+            if (json.has("storage_type")) {
+                this.storageType = json.get("storage_type").getAsString().toLowerCase();
+            }
+            
             if (json.has("default_range")) {
                 this.defaultRange = json.get("default_range").getAsInt();
             }
@@ -66,8 +76,28 @@ public class HologramsConfig {
                 this.debug = json.get("debug").getAsBoolean();
             }
             
-            LOGGER.info("Loaded configuration: storage_location={}, default_range={}, debug={}",
-                    this.storageLocation, this.defaultRange, this.debug);
+            if (json.has("placeholder_refresh_ticks")) {
+                this.placeholderRefreshTicks = Math.max(1, json.get("placeholder_refresh_ticks").getAsInt());
+            }
+            
+            if (json.has("save_window_ms")) {
+                this.saveWindowMillis = Math.max(0L, json.get("save_window_ms").getAsLong());
+            }
+            
+            if (json.has("load_spawn_budget")) {
+                this.loadSpawnBudget = Math.max(1, json.get("load_spawn_budget").getAsInt());
+            }
+            
+            if (json.has("scoreboard_updates")) {
+                this.scoreboardUpdates = json.get("scoreboard_updates").getAsString().toLowerCase();
+            }
+            
+            if (json.has("tick_budget_ns")) {
+                this.tickBudgetNanos = Math.max(0L, json.get("tick_budget_ns").getAsLong());
+            }
+            
+            LOGGER.info("Loaded configuration: storage_location={}, storage_type={}, default_range={}, debug={}, placeholder_refresh_ticks={}, save_window_ms={}, load_spawn_budget={}, scoreboard_updates={}, tick_budget_ns={}",
+                    this.storageLocation, this.storageType, this.defaultRange, this.debug, this.placeholderRefreshTicks, this.saveWindowMillis, this.loadSpawnBudget, this.scoreboardUpdates, this.tickBudgetNanos);
         } catch (Exception e) {
             LOGGER.error("Error loading configuration", e);
             createDefaultConfig(configFile);
@@ -83,8 +113,14 @@ public class HologramsConfig {
     private void createDefaultConfig(File configFile) throws IOException {
         JsonObject json = new JsonObject();
         json.addProperty("storage_location", this.storageLocation);
+        json.addProperty("storage_type", this.storageType);
         json.addProperty("default_range", this.defaultRange);
         json.addProperty("debug", this.debug);
+        json.addProperty("placeholder_refresh_ticks", this.placeholderRefreshTicks);
+        json.addProperty("save_window_ms", this.saveWindowMillis);
+        json.addProperty("load_spawn_budget", this.loadSpawnBudget);
+        json.addProperty("scoreboard_updates", this.scoreboardUpdates);
+        json.addProperty("tick_budget_ns", this.tickBudgetNanos);
         
         String content = GSON.toJson(json);
         Files.write(configFile.toPath(), content.getBytes());
@@ -95,6 +131,16 @@ public class HologramsConfig {
         return this.storageLocation;
     }
 
+    /**
+     * Gets how holograms are stored, either "json" for a single holograms.json, "journal" for a snapshot
+     * plus an append-only journal of changes or "binary" for a compact holograms.bin that's decoded lazily
+     *
+     * @return The storage type
+     */
+    public String getStorageType() {
+        return this.storageType;
+    }
+
     public int getDefaultRange() {
         return this.defaultRange;
     }
@@ -102,4 +148,50 @@ public class HologramsConfig {
     public boolean isDebug() {
         return this.debug;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Gets how many ticks server placeholders like %players% and %tps% are reused for before being recomputed
+     *
+     * @return The refresh interval in ticks
+     */
+    public int getPlaceholderRefreshTicks() {
+        return this.placeholderRefreshTicks;
+    }
+
+    /**
+     * Gets how long hologram edits are collected for before they're written to storage
+     *
+     * @return The save window in milliseconds
+     */
+    public long getSaveWindowMillis() {
+        return this.saveWindowMillis;
+    }
+
+    /**
+     * Gets how many loaded holograms are created per tick while json storage is loaded at server start
+     *
+     * @return The number of holograms per tick
+     */
+    public int getLoadSpawnBudget() {
+        return this.loadSpawnBudget;
+    }
+
+    /**
+     * Gets whether scoreboard holograms update when the scoreboard changes, "events", instead of on their
+     * update interval, "interval"
+     *
+     * @return true if scoreboard holograms update when the scoreboard changes
+     */
+    public boolean isScoreboardEventDriven() {
+        return "events".equals(this.scoreboardUpdates);
+    }
+
+    /**
+     * Gets how long the hologram work of a server tick may take before the rest is carried over to the next tick
+     *
+     * @return The budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return this.tickBudgetNanos;
+    }
+}
@@ -3,22 +3,27 @@ package com.strictgaming.elite.holograms.forge20.hologram;
 import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import com.strictgaming.elite.holograms.forge20.hologram.entity.AnimatedHologramLine;
 import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
-import com.strictgaming.elite.holograms.forge20.util.UtilConcurrency;
 import com.strictgaming.elite.holograms.forge20.util.UtilWorld;
 import com.google.common.collect.Lists;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.decoration.ArmorStand;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * The Forge 1.20 implementation of a {@link Hologram}
+ *
+ * Thread ownership:
+ * - lines is copy-on-write and only changed on the server thread (commands, loading, ticking). Anyone iterating it,
+ *   including the HologramManager thread, sees a consistent snapshot without locking
+ * - nearbyPlayers is a bitset of player session indices. The HologramManager thread adds and removes viewers as they
+ *   come in and out of range, the server thread only clears it to force a re-check
+ * - world, position and range are written on the server thread and read by the HologramManager thread
+ * - pendingLines holds lines read from storage that haven't been built yet. They're built on first use, which for a
+ *   loaded hologram is the first time it's spawned for a player
  */
 public class ForgeHologram implements Hologram {
 
@@ -26,20 +31,20 @@ public class ForgeHologram implements Hologram {
     private static final double HOLOGRAM_LINE_GAP = 0.25;
 
     private final String id;
-    private transient Level world;
-    private transient Vec3 position;
-    private int range;
+    private transient volatile Level world;
+    private transient volatile Vec3 position;
+    private volatile int range;
     private transient final List<HologramLine> lines;
-    private transient final List<UUID> nearbyPlayers;
-    private transient long tickCount = 0;
+    private transient final ViewerSet nearbyPlayers;
+    private transient volatile PendingLines pendingLines;
 
     public ForgeHologram(String id, Level world, Vec3 position, int range, boolean save, String... lines) {
         this.id = id;
         this.world = world;
         this.position = position;
         this.range = range;
-        this.lines = Lists.newArrayList();
-        this.nearbyPlayers = Lists.newArrayList();
+        this.lines = Lists.newCopyOnWriteArrayList();
+        this.nearbyPlayers = new ViewerSet();
 
         // Add to HologramManager
         HologramManager.addHologram(this);
@@ -49,29 +54,7 @@ public class ForgeHologram implements Hologram {
 
         // Save
         if (save) {
-            HologramManager.save();
-        }
-    }
-
-    /**
-     * Tick animated hologram lines
-     */
-    public void tick() {
-        tickCount++;
-        
-        for (HologramLine line : lines) {
-            if (line instanceof AnimatedHologramLine) {
-                AnimatedHologramLine animatedLine = (AnimatedHologramLine) line;
-                if (animatedLine.tick(tickCount)) {
-                    // Frame changed, update for all nearby players
-                    for (UUID playerUUID : nearbyPlayers) {
-                        ServerPlayer player = UtilConcurrency.getPlayer(playerUUID);
-                        if (player != null) {
-                            animatedLine.updateForPlayer(player);
-                        }
-                    }
-                }
-            }
+            HologramManager.save(this.id);
         }
     }
 
@@ -98,18 +81,15 @@ public class ForgeHologram implements Hologram {
             return;
         }
 
+        this.materializeLines();
         double y = this.position.y;
 
         if (!this.lines.isEmpty()) {
             y -= this.lines.size() * HOLOGRAM_LINE_GAP;
         }
 
-        // Create a new ArmorStand for the line
-        ArmorStand armorStand = new ArmorStand(this.world,
-                this.position.x, y, this.position.z);
-        
         // Create a hologram line and set its text
-        HologramLine line = new HologramLine(armorStand);
+        HologramLine line = new HologramLine(this.position.x, y, this.position.z);
         line.setText(text);
 
         // Add to our list 
@@ -119,24 +99,18 @@ public class ForgeHologram implements Hologram {
         this.repositionLines();
         
         // Spawn for all nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                line.spawnForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            line.spawnForPlayer(player);
         }
         
         // Force immediate update packet to ensure text is visible
         // Sometimes just spawning the entity isn't enough if the metadata isn't fully synced
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                line.updateForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            line.updateForPlayer(player);
         }
         
         // Ensure that the hologram is saved immediately after adding a line
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     @Override
@@ -148,16 +122,19 @@ public class ForgeHologram implements Hologram {
         // Update position
         this.position = new Vec3(x, y, z);
         this.repositionLines();
+        HologramManager.updateLocation(this);
 
         // Force refresh of visibility to show updated position
         this.refreshVisibility();
 
         // Save the updated location
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     @Override
     public void setLine(int lineNumber, String text) {
+        this.materializeLines();
+
         if (lineNumber < 0 || lineNumber >= this.lines.size()) {
             return;
         }
@@ -166,19 +143,18 @@ public class ForgeHologram implements Hologram {
         line.setText(text);
 
         // Update for all nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                line.updateForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            line.updateForPlayer(player);
         }
 
         // Save changes
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     @Override
     public void insertLine(int lineNumber, String text) {
+        this.materializeLines();
+
         if (lineNumber < 0 || lineNumber > this.lines.size()) {
             return;
         }
@@ -191,9 +167,7 @@ public class ForgeHologram implements Hologram {
         double y = this.position.y - (lineNumber * HOLOGRAM_LINE_GAP);
 
         // Create a new line
-        ArmorStand armorStand = new ArmorStand(this.world,
-                this.position.x, y, this.position.z);
-        HologramLine line = new HologramLine(armorStand);
+        HologramLine line = new HologramLine(this.position.x, y, this.position.z);
         line.setText(text);
 
         // Insert the line at the correct position
@@ -203,25 +177,24 @@ public class ForgeHologram implements Hologram {
         this.repositionLines();
         
         // Spawn for all nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                // Spawn the new line
-                line.spawnForPlayer(player);
-                
-                // Update positions for all lines
-                for (HologramLine existingLine : this.lines) {
-                    existingLine.sendTeleportPacket(player);
-                }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            // Spawn the new line
+            line.spawnForPlayer(player);
+            
+            // Update positions for all lines
+            for (HologramLine existingLine : this.lines) {
+                existingLine.sendTeleportPacket(player);
             }
         }
 
         // Save changes
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     @Override
     public void removeLine(int lineNumber) {
+        this.materializeLines();
+
         if (lineNumber < 0 || lineNumber >= this.lines.size()) {
             return;
         }
@@ -229,12 +202,13 @@ public class ForgeHologram implements Hologram {
         // Get the line and despawn it
         HologramLine line = this.lines.remove(lineNumber);
         this.despawnLine(line);
+        line.release();
 
         // Reposition remaining lines
         this.repositionLines();
 
         // Save changes
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     @Override
@@ -242,11 +216,12 @@ public class ForgeHologram implements Hologram {
         // First remove from manager
         HologramManager.removeHologram(this);
 
-        // Then despawn for all players
+        // Then despawn for all players, after which nobody can see its entity ids
         this.despawn();
+        this.releaseEntityIds();
 
         // Save the updated list
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 
     /**
@@ -268,17 +243,23 @@ public class ForgeHologram implements Hologram {
         this.nearbyPlayers.clear();
     }
 
+    /**
+     * Gives the entity ids of the lines back once the hologram is gone. It has to be despawned first
+     */
+    public void releaseEntityIds() {
+        for (HologramLine line : this.lines) {
+            line.release();
+        }
+    }
+
     private void despawnLine(HologramLine line) {
         if (line == null) {
             return;
         }
 
         // Despawn for all nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                line.despawnForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            line.despawnForPlayer(player);
         }
     }
 
@@ -300,6 +281,7 @@ public class ForgeHologram implements Hologram {
         }
 
         LOGGER.debug("Creating copy of hologram '{}' with ID '{}'", this.id, id);
+        this.materializeLines();
         
         // Create a new hologram with the same position and properties but no lines
         ForgeHologram newHologram = new ForgeHologram(
@@ -321,10 +303,7 @@ public class ForgeHologram implements Hologram {
             
             // Create a new line at the same position
             double lineY = newHologram.position.y - (i * HOLOGRAM_LINE_GAP);
-            ArmorStand armorStand = new ArmorStand(newHologram.world,
-                    newHologram.position.x, lineY, newHologram.position.z);
-            
-            HologramLine newLine = new HologramLine(armorStand);
+            HologramLine newLine = new HologramLine(newHologram.position.x, lineY, newHologram.position.z);
             newLine.setText(lineText);
             
             // Add to the new hologram
@@ -332,7 +311,7 @@ public class ForgeHologram implements Hologram {
         }
         
         // Now save the hologram
-        HologramManager.save();
+        HologramManager.save(newHologram.getId());
         
         return newHologram;
     }
@@ -365,34 +344,30 @@ public class ForgeHologram implements Hologram {
      * @param intervalSeconds Seconds between frame changes
      */
     public void addAnimatedLine(List<String> frames, int intervalSeconds) {
+        this.materializeLines();
+
         double y = this.position.y;
         if (!this.lines.isEmpty()) {
             y -= this.lines.size() * HOLOGRAM_LINE_GAP;
         }
 
-        // Create ArmorStand
-        ArmorStand armorStand = new ArmorStand(this.world,
-                this.position.x, y, this.position.z);
-                
         // Create AnimatedHologramLine
         AnimatedHologramLine animatedLine = new AnimatedHologramLine(
-            armorStand,
+            this.position.x, y, this.position.z,
             frames,
             intervalSeconds * 20 // Convert seconds to ticks
         );
 
         this.lines.add(animatedLine);
         this.repositionLines();
+        AnimationWheel.register(this, animatedLine);
         
         // Spawn for nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                animatedLine.spawnForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            animatedLine.spawnForPlayer(player);
         }
         
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
     
     /**
@@ -402,6 +377,8 @@ public class ForgeHologram implements Hologram {
      * @param intervalSeconds Seconds between frame changes
      */
     public void setLineAnimated(int lineIndex, List<String> frames, int intervalSeconds) {
+        this.materializeLines();
+
         if (lineIndex < 1 || lineIndex > this.lines.size()) {
             return;
         }
@@ -411,43 +388,163 @@ public class ForgeHologram implements Hologram {
         
         // Despawn old line for all nearby players
         this.despawnLine(oldLine);
+        oldLine.release();
         
         // Create new animated line at same position
-        // We reuse the position calculation but need a new ArmorStand instance
-        // effectively, or just construct it using current position of old line?
-        // The old line has an ArmorStand. We can get its position.
-        
         double y = this.position.y - (index * HOLOGRAM_LINE_GAP);
-        ArmorStand armorStand = new ArmorStand(this.world,
-                this.position.x, y, this.position.z);
-        
         AnimatedHologramLine newLine = new AnimatedHologramLine(
-            armorStand,
+            this.position.x, y, this.position.z,
             frames,
             intervalSeconds * 20 // Convert seconds to ticks
         );
         
         this.lines.set(index, newLine);
+        AnimationWheel.register(this, newLine);
         
         // Spawn new line for all nearby players
-        for (UUID uuid : this.nearbyPlayers) {
-            ServerPlayer player = UtilConcurrency.getPlayer(uuid);
-            if (player != null) {
-                newLine.spawnForPlayer(player);
-            }
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            newLine.spawnForPlayer(player);
         }
         
-        HologramManager.save();
+        HologramManager.save(this.id);
+    }
+
+    /**
+     * Changes the lines to show the given texts without saving, reusing the lines that are already there. A line
+     * whose text didn't change sends nothing, one whose text changed only sends its new name, and lines are only
+     * spawned or despawned when the number of lines changes
+     *
+     * @param texts The text of each line, top to bottom
+     */
+    protected void updateLinesInPlace(List<String> texts) {
+        this.materializeLines();
+        List<ServerPlayer> viewers = this.nearbyPlayers.getPlayers();
+        int common = Math.min(this.lines.size(), texts.size());
+
+        for (int i = 0; i < common; i++) {
+            String text = texts.get(i);
+            HologramLine line = this.lines.get(i);
+
+            if (!(line instanceof AnimatedHologramLine) && text.equals(line.getText())) {
+                continue;
+            }
+
+            if (line instanceof AnimatedHologramLine) {
+                // An animated line keeps cycling its frames, so this one row is replaced with a plain line
+                this.despawnLine(line);
+                line.release();
+                line = new HologramLine(this.position.x, this.position.y - (i * HOLOGRAM_LINE_GAP), this.position.z);
+                line.setText(text);
+                this.lines.set(i, line);
+
+                for (ServerPlayer player : viewers) {
+                    line.spawnForPlayer(player);
+                }
+                continue;
+            }
+
+            line.setText(text);
+
+            for (ServerPlayer player : viewers) {
+                line.updateNameForPlayer(player);
+            }
+        }
+
+        while (this.lines.size() > texts.size()) {
+            HologramLine line = this.lines.remove(this.lines.size() - 1);
+            this.despawnLine(line);
+            line.release();
+        }
+
+        for (int i = this.lines.size(); i < texts.size(); i++) {
+            HologramLine line = new HologramLine(this.position.x, this.position.y - (i * HOLOGRAM_LINE_GAP), this.position.z);
+            line.setText(texts.get(i));
+            this.lines.add(line);
+
+            for (ServerPlayer player : viewers) {
+                line.spawnForPlayer(player);
+            }
+        }
     }
 
     public List<HologramLine> getLines() {
+        this.materializeLines();
         return this.lines;
     }
 
-    public List<UUID> getNearbyPlayers() {
+    /**
+     * Sets lines read from storage, to be built the first time the lines are needed instead of now
+     *
+     * @param pendingLines The lines, or null
+     */
+    public void setPendingLines(PendingLines pendingLines) {
+        this.pendingLines = pendingLines;
+    }
+
+    /**
+     * Gets the lines that haven't been built yet, so they can be saved without building them
+     *
+     * @return The pending lines, or null if the lines have been built
+     */
+    public PendingLines getPendingLines() {
+        return this.pendingLines;
+    }
+
+    private void materializeLines() {
+        if (this.pendingLines == null) {
+            return;
+        }
+
+        synchronized (this) {
+            PendingLines pending = this.pendingLines;
+
+            if (pending == null) {
+                return;
+            }
+
+            // Nobody can be viewing the lines yet, so they're only built here and spawned by whoever needed them
+            pending.accept(new PendingLines.Visitor() {
+                @Override
+                public void text(String text) {
+                    HologramLine line = new HologramLine(position.x, position.y, position.z);
+                    line.setText(text);
+                    lines.add(line);
+                }
+
+                @Override
+                public void animated(List<String> frames, int intervalSeconds) {
+                    AnimatedHologramLine line = new AnimatedHologramLine(position.x, position.y, position.z,
+                            frames, intervalSeconds * 20); // Convert seconds to ticks
+                    lines.add(line);
+                    AnimationWheel.register(ForgeHologram.this, line);
+                }
+            });
+
+            this.repositionLines();
+            this.pendingLines = null;
+        }
+    }
+
+    public ViewerSet getNearbyPlayers() {
         return this.nearbyPlayers;
     }
 
+    /**
+     * Gets how far away the nearest player the hologram is shown to is, so the {@link HologramScheduler} can run
+     * the work of the holograms players are closest to first
+     *
+     * @return The squared distance, or {@link Double#MAX_VALUE} if nobody is shown the hologram
+     */
+    public double getNearestViewerDistance() {
+        double nearest = Double.MAX_VALUE;
+
+        for (ServerPlayer player : this.nearbyPlayers.getPlayers()) {
+            nearest = Math.min(nearest, player.distanceToSqr(this.position));
+        }
+
+        return nearest;
+    }
+
     public Level getWorld() {
         return this.world;
     }
@@ -463,12 +560,13 @@ public class ForgeHologram implements Hologram {
     @Override
     public void setRange(int range) {
         this.range = range;
+        HologramManager.updateLocation(this);
         
         // Force refresh of visibility with new range
         this.refreshVisibility();
         
         // Save changes
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
     
     @Override
@@ -492,18 +590,14 @@ public class ForgeHologram implements Hologram {
         this.world = world;
         this.position = position;
 
-        // Update all lines' world and position
-        for (HologramLine line : this.lines) {
-            line.setWorld(world);
-        }
-        
-        // Reposition lines in the new location
+        // Lines only hold a position, so moving them to the new location is all they need
         this.repositionLines();
+        HologramManager.updateLocation(this);
 
         // Force refresh of visibility
         this.refreshVisibility();
 
         // Save changes
-        HologramManager.save();
+        HologramManager.save(this.id);
     }
 }
@@ -24,22 +24,30 @@ public class ForgeHologramTypeAdapter implements JsonSerializer<ForgeHologram>,
         object.add("loc", this.getLocationObject(hologram));
 
         JsonArray lines = new JsonArray();
+        PendingLines pending = hologram.getPendingLines();
 
-        for (HologramLine line : hologram.getLines()) {
-            if (line instanceof AnimatedHologramLine) {
-                AnimatedHologramLine animated = (AnimatedHologramLine) line;
-                JsonObject animObj = new JsonObject();
-                animObj.addProperty("type", "animated");
-                animObj.addProperty("interval", animated.getIntervalTicks() / 20); // Convert ticks to seconds
-                
-                JsonArray frames = new JsonArray();
-                for (String frame : animated.getFrames()) {
-                    frames.add(frame);
+        // Lines that haven't been built yet are written as they are, saving runs off the server thread
+        if (pending != null) {
+            pending.accept(new PendingLines.Visitor() {
+                @Override
+                public void text(String text) {
+                    lines.add(text);
+                }
+
+                @Override
+                public void animated(List<String> frames, int intervalSeconds) {
+                    lines.add(getAnimatedObject(frames, intervalSeconds));
+                }
+            });
+        } else {
+            for (HologramLine line : hologram.getLines()) {
+                if (line instanceof AnimatedHologramLine) {
+                    AnimatedHologramLine animated = (AnimatedHologramLine) line;
+                    // Convert ticks to seconds
+                    lines.add(this.getAnimatedObject(animated.getFrames(), animated.getIntervalTicks() / 20));
+                } else {
+                    lines.add(line.getText());
                 }
-                animObj.add("frames", frames);
-                lines.add(animObj);
-            } else {
-                lines.add(line.getText());
             }
         }
 
@@ -56,6 +64,19 @@ public class ForgeHologramTypeAdapter implements JsonSerializer<ForgeHologram>,
         return object;
     }
     
+    private JsonObject getAnimatedObject(List<String> frames, int intervalSeconds) {
+        JsonObject animObj = new JsonObject();
+        animObj.addProperty("type", "animated");
+        animObj.addProperty("interval", intervalSeconds);
+
+        JsonArray framesArray = new JsonArray();
+        for (String frame : frames) {
+            framesArray.add(frame);
+        }
+        animObj.add("frames", framesArray);
+        return animObj;
+    }
+
     // ... getLocationObject ...
     private JsonObject getLocationObject(ForgeHologram hologram) {
         JsonObject object = new JsonObject();
@@ -71,76 +92,176 @@ public class ForgeHologramTypeAdapter implements JsonSerializer<ForgeHologram>,
     @Override
     public ForgeHologram deserialize(JsonElement element, Type type, JsonDeserializationContext context) throws JsonParseException {
         try {
-            JsonObject object = element.getAsJsonObject();
-            String id = object.get("id").getAsString();
-    
-            JsonObject loc = object.getAsJsonObject("loc");
-    
-            String worldName = loc.get("world").getAsString();
-            double x = loc.get("x").getAsDouble();
-            double y = loc.get("y").getAsDouble();
-            double z = loc.get("z").getAsDouble();
-            int range = 64;
-    
-            if (object.has("range")) {
-                range = object.get("range").getAsInt();
-    
-                if (range == 0) {
-                    range = 64;
-                }
-            }
-    
+            StoredHologram stored = read(element);
+
             // Get the world from the name
-            Level world = UtilWorld.findWorld(worldName);
+            Level world = UtilWorld.findWorld(stored.getWorldName());
             
             if (world == null) {
-                System.out.println("[EliteHolograms] Could not find world: " + worldName);
+                System.out.println("[EliteHolograms] Could not find world: " + stored.getWorldName());
                 return null;
             }
-            
-            String hologramType = object.has("type") ? object.get("type").getAsString() : "basic";
-            ForgeHologram hologram;
-
-            if ("item".equalsIgnoreCase(hologramType) && object.has("itemId")) {
-                String itemId = object.get("itemId").getAsString();
-                hologram = new ItemHologram(id, world, new Vec3(x, y, z), range, itemId);
-            } else {
-                // Create the hologram base first (without lines)
-                hologram = new ForgeHologram(id, world, new Vec3(x, y, z), range, false);
-            }
-            
-            // Process lines manually to handle animations
-            JsonArray lines = object.getAsJsonArray("lines");
-            
-            for (int i = 0; i < lines.size(); i++) {
-                JsonElement lineElement = lines.get(i);
-                
-                if (lineElement.isJsonObject()) {
-                    // It's likely an animated line or complex object
-                    JsonObject lineObj = lineElement.getAsJsonObject();
-                    if (lineObj.has("type") && lineObj.get("type").getAsString().equals("animated")) {
-                        int interval = lineObj.get("interval").getAsInt();
-                        JsonArray framesArray = lineObj.getAsJsonArray("frames");
-                        List<String> frames = Lists.newArrayList();
-                        for (JsonElement frame : framesArray) {
-                            frames.add(frame.getAsString());
-                        }
-                        hologram.addAnimatedLine(frames, interval);
-                    } else {
-                        // Fallback if type unknown
-                         hologram.addLine("Error: Unknown line type");
-                    }
-                } else {
-                    // Simple string line
-                        hologram.addLine(lineElement.getAsString());
-                }
-            }
-            
-            return hologram;
+
+            return stored.create(world);
         } catch (Exception e) {
             System.out.println("[EliteHolograms] Error deserializing hologram: " + e.getMessage());
             e.printStackTrace();
             return null;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Reads a hologram's json without creating it, so it can be read off the server thread and created once
+     * its world is known. Shared by {@link #deserialize} and the {@link HologramLoader}
+     *
+     * @param element The hologram's json
+     * @return The hologram as it was stored
+     * @throws JsonParseException If the hologram isn't valid
+     */
+    public static StoredHologram read(JsonElement element) throws JsonParseException {
+        if (element == null || !element.isJsonObject()) {
+            throw new JsonParseException("Hologram is not an object");
+        }
+
+        JsonObject object = element.getAsJsonObject();
+        String id = object.has("id") ? object.get("id").getAsString() : "";
+
+        if (id.isEmpty()) {
+            throw new JsonParseException("Hologram has an empty id");
+        }
+
+        JsonObject loc = object.getAsJsonObject("loc");
+        double x = loc.get("x").getAsDouble();
+        double y = loc.get("y").getAsDouble();
+        double z = loc.get("z").getAsDouble();
+
+        // Gson refuses to write these, so they'd break every save after this
+        if (!Double.isFinite(x) || !Double.isFinite(y) || !Double.isFinite(z)) {
+            throw new JsonParseException("Hologram " + id + " has an invalid position (" + x + ", " + y + ", " + z + ")");
+        }
+
+        int range = 64;
+
+        if (object.has("range")) {
+            range = object.get("range").getAsInt();
+
+            if (range == 0) {
+                range = 64;
+            }
+        }
+
+        String hologramType = object.has("type") ? object.get("type").getAsString() : "basic";
+        String itemId = "item".equalsIgnoreCase(hologramType) && object.has("itemId") ? object.get("itemId").getAsString() : null;
+        List<Object> lines = Lists.newArrayList();
+
+        for (JsonElement lineElement : object.getAsJsonArray("lines")) {
+            if (!lineElement.isJsonObject()) {
+                // Simple string line
+                lines.add(lineElement.getAsString());
+                continue;
+            }
+
+            // It's likely an animated line or complex object
+            JsonObject lineObj = lineElement.getAsJsonObject();
+
+            if (!lineObj.has("type") || !lineObj.get("type").getAsString().equals("animated")) {
+                // Fallback if type unknown
+                lines.add("Error: Unknown line type");
+                continue;
+            }
+
+            List<String> frames = Lists.newArrayList();
+
+            for (JsonElement frame : lineObj.getAsJsonArray("frames")) {
+                frames.add(frame.getAsString());
+            }
+
+            lines.add(new StoredAnimation(frames, lineObj.get("interval").getAsInt()));
+        }
+
+        return new StoredHologram(id, loc.get("world").getAsString(), new Vec3(x, y, z), range, itemId, lines);
+    }
+
+    /**
+     *
+     * A hologram as it was read from storage, before it's created. Its lines are handed to the hologram as
+     * {@link PendingLines}, so they're only built once the hologram is first spawned
+     *
+     */
+    public static final class StoredHologram implements PendingLines {
+
+        private final String id;
+        private final String worldName;
+        private final Vec3 position;
+        private final int range;
+        private final String itemId;
+        private final List<Object> lines;
+
+        private StoredHologram(String id, String worldName, Vec3 position, int range, String itemId, List<Object> lines) {
+            this.id = id;
+            this.worldName = worldName;
+            this.position = position;
+            this.range = range;
+            this.itemId = itemId;
+            this.lines = lines;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public String getWorldName() {
+            return this.worldName;
+        }
+
+        public Vec3 getPosition() {
+            return this.position;
+        }
+
+        /**
+         * Creates the hologram, which registers it with the manager
+         *
+         * @param world The hologram's world
+         * @return The hologram
+         */
+        public ForgeHologram create(Level world) {
+            ForgeHologram hologram = this.itemId != null
+                    ? new ItemHologram(this.id, world, this.position, this.range, this.itemId)
+                    : new ForgeHologram(this.id, world, this.position, this.range, false);
+
+            if (!this.lines.isEmpty()) {
+                hologram.setPendingLines(this);
+            }
+
+            return hologram;
+        }
+
+        @Override
+        public int size() {
+            return this.lines.size();
+        }
+
+        @Override
+        public void accept(Visitor visitor) {
+            for (Object line : this.lines) {
+                if (line instanceof StoredAnimation) {
+                    StoredAnimation animation = (StoredAnimation) line;
+                    visitor.animated(animation.frames, animation.intervalSeconds);
+                } else {
+                    visitor.text((String) line);
+                }
+            }
+        }
+    }
+
+    private static final class StoredAnimation {
+
+        private final List<String> frames;
+        private final int intervalSeconds;
+
+        private StoredAnimation(List<String> frames, int intervalSeconds) {
+            this.frames = frames;
+            this.intervalSeconds = intervalSeconds;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonElement;
+import com.strictgaming.elite.holograms.forge20.hologram.database.JsonHologramSaver;
+import com.strictgaming.elite.holograms.forge20.util.UtilWorld;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * Loads holograms.json in stages so a large file doesn't stall the server start. The file is streamed on a
+ * worker thread and every batch of holograms is parsed and validated on a worker pool. The server thread then
+ * resolves each world once, orders the holograms so the ones closest to an online player or the world spawn
+ * come first, and creates a limited number of them each tick. Their lines are left pending until they're first
+ * spawned, see {@link PendingLines}
+ *
+ */
+public class HologramLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
+
+    private static final int BATCH_SIZE = 256;
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "EliteHolograms-Loader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JsonHologramSaver saver;
+    private final int budget;
+    private final long startNanos = System.nanoTime();
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private CompletableFuture<List<Entry>> parsed;
+    private boolean ordered = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean failed = false;
+    private volatile long readNanos = 0L;
+    private long firstTickNanos = -1L;
+    private long longestTickNanos = 0L;
+    private int ticks = 0;
+    private int created = 0;
+
+    public HologramLoader(JsonHologramSaver saver, int budget) {
+        this.saver = saver;
+        this.budget = Math.max(1, budget);
+    }
+
+    /**
+     * Starts reading and validating the holograms on the worker pool
+     */
+    public void start() {
+        this.parsed = CompletableFuture.supplyAsync(this::read, WORKERS)
+                .thenCompose(batches -> CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                        .thenApply(ignored -> this.collect(batches)))
+                .exceptionally(e -> {
+                    LOGGER.error("Error reading holograms from storage", e);
+                    this.failed = true;
+                    return Collections.emptyList();
+                });
+    }
+
+    private List<CompletableFuture<List<Entry>>> read() {
+        List<CompletableFuture<List<Entry>>> batches = Lists.newArrayList();
+        List<JsonElement> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+
+        try {
+            this.saver.read(element -> {
+                batch.add(element);
+
+                if (batch.size() >= BATCH_SIZE) {
+                    List<JsonElement> full = Lists.newArrayList(batch);
+                    batches.add(CompletableFuture.supplyAsync(() -> parse(full), WORKERS));
+                    batch.clear();
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.error("Error reading holograms from storage", e);
+            this.failed = true;
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(CompletableFuture.supplyAsync(() -> parse(batch), WORKERS));
+        }
+
+        return batches;
+    }
+
+    private static List<Entry> parse(List<JsonElement> batch) {
+        List<Entry> valid = Lists.newArrayListWithCapacity(batch.size());
+
+        for (JsonElement element : batch) {
+            try {
+                valid.add(new Entry(ForgeHologramTypeAdapter.read(element), element));
+            } catch (Exception e) {
+                LOGGER.warn("Skipping hologram that couldn't be read: {}", e.getMessage());
+            }
+        }
+
+        return valid;
+    }
+
+    private List<Entry> collect(List<CompletableFuture<List<Entry>>> batches) {
+        Map<String, Entry> unique = Maps.newLinkedHashMap();
+
+        for (CompletableFuture<List<Entry>> batch : batches) {
+            for (Entry entry : batch.join()) {
+                if (unique.putIfAbsent(entry.getId().toLowerCase(), entry) != null) {
+                    LOGGER.info("Duplicate hologram ID: {}", entry.getId());
+                }
+            }
+        }
+
+        this.readNanos = System.nanoTime() - this.startNanos;
+        LOGGER.info("Read and validated {} holograms in {} ms on {} threads",
+                unique.size(), TimeUnit.NANOSECONDS.toMillis(this.readNanos), THREADS);
+
+        // A file that couldn't be read completely isn't taken as what's on disk, same as a failed synchronous load
+        if (!this.failed) {
+            Map<String, JsonElement> elements = Maps.newLinkedHashMap();
+
+            for (Map.Entry<String, Entry> entry : unique.entrySet()) {
+                elements.put(entry.getKey(), entry.getValue().element);
+            }
+
+            // Checked under the saver's lock, a reload that cancelled this load loads the saver again afterwards
+            synchronized (this.saver) {
+                if (!this.cancelled) {
+                    this.saver.prime(elements);
+                }
+            }
+        }
+
+        return Lists.newArrayList(unique.values());
+    }
+
+    /**
+     * Orders the holograms by how close they are to an online player, or to the spawn of their world when
+     * nobody is in it. Worlds and the positions to measure from are looked up once per world, not once per
+     * hologram
+     */
+    private void order(List<Entry> entries) {
+        Map<String, Level> worlds = Maps.newHashMap();
+        Map<Level, List<Vec3>> anchors = Maps.newHashMap();
+        Map<Entry, Double> distances = Maps.newHashMap();
+        List<Entry> sorted = Lists.newArrayListWithCapacity(entries.size());
+        Set<String> skipped = Sets.newHashSet();
+
+        for (Entry entry : entries) {
+            String worldName = entry.stored.getWorldName();
+
+            if (!worlds.containsKey(worldName)) {
+                Level world = UtilWorld.findWorld(worldName);
+                worlds.put(worldName, world);
+
+                if (world == null) {
+                    LOGGER.warn("Could not find world {}, its holograms aren't loaded", worldName);
+                }
+            }
+
+            Level world = worlds.get(worldName);
+
+            if (world == null) {
+                skipped.add(entry.getId().toLowerCase());
+                continue;
+            }
+
+            entry.world = world;
+            double closest = Double.MAX_VALUE;
+
+            for (Vec3 point : anchors.computeIfAbsent(world, HologramLoader::getAnchors)) {
+                closest = Math.min(closest, point.distanceToSqr(entry.stored.getPosition()));
+            }
+
+            distances.put(entry, closest);
+            sorted.add(entry);
+        }
+
+        // Left out of the next save like a synchronous load leaves them out, not kept as if they'd been loaded
+        if (!skipped.isEmpty()) {
+            synchronized (this.saver) {
+                if (!this.cancelled) {
+                    this.saver.forget(skipped);
+                }
+            }
+        }
+
+        sorted.sort(Comparator.comparingDouble(distances::get));
+        this.queue.addAll(sorted);
+        this.ordered = true;
+    }
+
+    private static List<Vec3> getAnchors(Level world) {
+        List<Vec3> points = Lists.newArrayList();
+
+        for (Player player : world.players()) {
+            points.add(player.position());
+        }
+
+        if (points.isEmpty()) {
+            points.add(Vec3.atCenterOf(world.getSharedSpawnPos()));
+        }
+
+        return points;
+    }
+
+    /**
+     * Creates the next holograms once reading has finished. Called every tick on the server thread
+     *
+     * @param server The server
+     * @return true once every hologram has been created or the load was cancelled
+     */
+    public boolean tick(MinecraftServer server) {
+        if (this.cancelled) {
+            return true;
+        }
+
+        if (!this.parsed.isDone()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+
+        if (!this.ordered) {
+            this.order(this.parsed.join());
+        }
+
+        for (int i = 0; i < this.budget && !this.cancelled; i++) {
+            Entry entry = this.queue.poll();
+
+            if (entry == null) {
+                break;
+            }
+
+            try {
+                HologramManager.createLoaded(entry);
+                this.created++;
+            } catch (Exception e) {
+                LOGGER.error("Failed to create hologram {}", entry.getId(), e);
+            }
+        }
+
+        this.recordTick(System.nanoTime() - start);
+        return this.isDone();
+    }
+
+    private void recordTick(long nanos) {
+        if (this.firstTickNanos < 0) {
+            this.firstTickNanos = nanos;
+        }
+
+        this.longestTickNanos = Math.max(this.longestTickNanos, nanos);
+        this.ticks++;
+
+        if (this.isDone()) {
+            LOGGER.info("Loaded {} holograms in {} ms (read in {} ms, created over {} ticks, first tick {} ms, longest tick {} ms)",
+                    this.created,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(this.readNanos),
+                    this.ticks,
+                    TimeUnit.NANOSECONDS.toMillis(this.firstTickNanos),
+                    TimeUnit.NANOSECONDS.toMillis(this.longestTickNanos));
+        }
+    }
+
+    private boolean isDone() {
+        return this.cancelled || (this.ordered && this.queue.isEmpty());
+    }
+
+    /**
+     * Waits for reading to finish, after which the saver holds every hologram read. Saves wait for this so they
+     * don't write the file without the holograms that haven't been created yet
+     */
+    public void awaitRead() {
+        if (!this.cancelled) {
+            this.parsed.join();
+        }
+    }
+
+    /**
+     * Stops creating holograms, used when a reload replaces this load
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * A hologram as it was read from storage, parsed off the server thread
+     */
+    static class Entry {
+
+        private final ForgeHologramTypeAdapter.StoredHologram stored;
+        private final JsonElement element;
+        private Level world;
+
+        private Entry(ForgeHologramTypeAdapter.StoredHologram stored, JsonElement element) {
+            this.stored = stored;
+            this.element = element;
+        }
+
+        /**
+         * Creates the hologram, which registers it with the manager. Called on the server thread once its
+         * world has been resolved
+         *
+         * @return The hologram
+         */
+        ForgeHologram create() {
+            return this.stored.create(this.world);
+        }
+
+        String getId() {
+            return this.stored.getId();
+        }
+    }
+}
@@ -2,17 +2,22 @@ package com.strictgaming.elite.holograms.forge20.hologram;
 
 import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import com.strictgaming.elite.holograms.api.manager.database.HologramSaver;
+import com.strictgaming.elite.holograms.api.manager.database.JournalHologramSaver;
 import com.strictgaming.elite.holograms.forge20.Forge20Holograms;
+import com.strictgaming.elite.holograms.forge20.config.HologramsConfig;
 import com.strictgaming.elite.holograms.forge20.config.ScoreboardHologramConfig;
+import com.strictgaming.elite.holograms.forge20.hologram.database.JsonHologramCodec;
+import com.strictgaming.elite.holograms.forge20.hologram.database.BinaryHologramSaver;
 import com.strictgaming.elite.holograms.forge20.hologram.database.JsonHologramSaver;
-import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
-import com.strictgaming.elite.holograms.forge20.hologram.entity.AnimatedHologramLine;
 import com.strictgaming.elite.holograms.forge20.hologram.ScoreboardHologram;
-import com.strictgaming.elite.holograms.forge20.util.UtilConcurrency;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.EntityIdAllocator;
+import com.strictgaming.elite.holograms.forge20.util.UtilPacket;
 import com.strictgaming.elite.holograms.forge20.util.UtilPlayer;
 import net.minecraft.world.level.Level;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -26,7 +31,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -38,9 +47,16 @@ public class HologramManager implements Runnable {
     private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
     
     private static final Map<String, ForgeHologram> HOLOGRAMS = Maps.newConcurrentMap();
+    private static final HologramSpatialIndex INDEX = new HologramSpatialIndex();
+    private static final Map<UUID, Set<ForgeHologram>> PLAYER_VIEWS = Maps.newConcurrentMap();
+    private static final AtomicInteger PENDING_OPERATIONS = new AtomicInteger();
+    private static volatile long lastHandoffLatency = 0;
+    private static volatile long maxHandoffLatency = 0;
     private static HologramSaver saver;
     private static ScoreboardHologramConfig scoreboardConfig;
     private static boolean shutdown = false;
+    private static volatile boolean loading = false;
+    private static volatile HologramLoader activeLoad = null;
     private static Thread managerThread;
     private static long lastScoreboardSave = 0;
     private static final long SCOREBOARD_SAVE_COOLDOWN = 5000; // 5 seconds cooldown
@@ -51,16 +67,42 @@ public class HologramManager implements Runnable {
         // managerThread.start();
 
         new PlayerEventListener();
-        saver = (HologramSaver) new JsonHologramSaver(Forge20Holograms.getInstance().getConfig().getStorageLocation());
         // Ensure scoreboard configs are saved alongside other config files
         File storagePath = new File(Forge20Holograms.getInstance().getConfig().getStorageLocation());
         File configDir = storagePath.isDirectory() ? storagePath : storagePath.getParentFile();
         if (configDir != null && !configDir.exists()) {
             configDir.mkdirs();
         }
+        saver = createSaver(Forge20Holograms.getInstance().getConfig());
         scoreboardConfig = new ScoreboardHologramConfig(configDir);
     }
     
+    /**
+     * Creates the saver for the configured storage type
+     *
+     * @param config The config
+     * @return The saver
+     */
+    private static HologramSaver createSaver(HologramsConfig config) {
+        String location = config.getStorageLocation();
+        // Same as JsonHologramSaver, the location is either the json file or the folder it goes in
+        File storageDir = location.endsWith(".json") ? new File(location).getAbsoluteFile().getParentFile() : new File(location);
+
+        switch (config.getStorageType()) {
+            case "journal":
+                LOGGER.info("Using journal hologram storage in {}", storageDir);
+                return new JournalHologramSaver(new File(storageDir, "holograms"), new JsonHologramCodec());
+            case "binary":
+                LOGGER.info("Using binary hologram storage in {}", storageDir);
+                return new BinaryHologramSaver(new File(storageDir, "holograms.bin"));
+            case "json":
+                return new JsonHologramSaver(location);
+            default:
+                LOGGER.warn("Unknown storage type '{}', falling back to json", config.getStorageType());
+                return new JsonHologramSaver(location);
+        }
+    }
+    
     /**
      * Starts the background manager thread. Should be called when server starts.
      */
@@ -82,13 +124,20 @@ public class HologramManager implements Runnable {
     }
 
     public static void clear() {
+        cancelLoad();
         for (ForgeHologram value : HOLOGRAMS.values()) {
             value.despawn();
+            value.releaseEntityIds();
         }
         HOLOGRAMS.clear();
+        ScoreboardSnapshots.clear();
+        HologramScheduler.clear();
+        INDEX.clear();
+        PLAYER_VIEWS.clear();
     }
 
     public static void load() throws IOException {
+        cancelLoad();
         LOGGER.info("Loading holograms from storage...");
         
         // Use the correct context classloader for Gson deserialization
@@ -99,8 +148,28 @@ public class HologramManager implements Runnable {
             // Save a snapshot of the currently loaded holograms
             Map<String, ForgeHologram> existingHolograms = new HashMap<>(HOLOGRAMS);
             
-            // Load from the saver
-            Map<String, Hologram> loadedHolograms = saver.load();
+            // Load from the saver. Building the holograms adds their lines one by one, which would otherwise
+            // queue a save for every hologram that's already on disk
+            Map<String, Hologram> loadedHolograms;
+            loading = true;
+            try {
+                // Checked before loading, an empty result can also mean every hologram was deleted
+                boolean firstStart = !saver.exists();
+                loadedHolograms = saver.load();
+
+                // First start on journal or binary storage, carry over the holograms from the json file
+                if (firstStart) {
+                    loadedHolograms = new JsonHologramSaver(Forge20Holograms.getInstance().getConfig().getStorageLocation()).load();
+
+                    if (!loadedHolograms.isEmpty()) {
+                        LOGGER.info("Importing {} holograms from json into {} storage", loadedHolograms.size(),
+                                Forge20Holograms.getInstance().getConfig().getStorageType());
+                        saver.save(Lists.newArrayList(loadedHolograms.values()));
+                    }
+                }
+            } finally {
+                loading = false;
+            }
             
             if (loadedHolograms.isEmpty() && !existingHolograms.isEmpty()) {
                 LOGGER.info("No holograms loaded from file, but we have " + existingHolograms.size() + " in memory - preserving existing");
@@ -117,17 +186,26 @@ public class HologramManager implements Runnable {
                      h.despawn();
                  }
             }
+            for (ForgeHologram h : HOLOGRAMS.values()) {
+                h.releaseEntityIds();
+            }
             HOLOGRAMS.clear();
+            ScoreboardSnapshots.clear();
+            HologramScheduler.clear();
+            INDEX.clear();
+            PLAYER_VIEWS.clear();
 
             // Add loaded holograms
             for (Map.Entry<String, Hologram> entry : loadedHolograms.entrySet()) {
                 if (entry.getValue() instanceof ForgeHologram) {
                     HOLOGRAMS.put(entry.getKey().toLowerCase(), (ForgeHologram) entry.getValue());
+                    INDEX.update((ForgeHologram) entry.getValue());
                     LOGGER.info("Added hologram from storage: " + entry.getKey());
                 }
             }
             
             LOGGER.info("Successfully loaded " + HOLOGRAMS.size() + " holograms");
+            LOGGER.debug("Hologram entity ids: {}", EntityIdAllocator.describe());
             
             // Spawn all loaded holograms now that they're added to the manager
             // This ensures ItemHolograms initialize their item stands
@@ -139,19 +217,167 @@ public class HologramManager implements Runnable {
             
             // Load scoreboard holograms separately
             loadScoreboardHolograms();
+            LOGGER.debug("Scoreboard objectives: {}", ScoreboardSnapshots.describe());
         } finally {
             Thread.currentThread().setContextClassLoader(oldClassLoader);
         }
     }
 
+    /**
+     * Starts loading the holograms in the background, used at server start. Json storage is read and validated
+     * on worker threads and the holograms are created a few at a time on the following ticks, see
+     * {@link HologramLoader}. Other storage types are loaded straight away
+     *
+     * @throws IOException If the holograms can't be loaded
+     */
+    public static void loadStaged() throws IOException {
+        if (!(saver instanceof JsonHologramSaver)) {
+            load();
+            return;
+        }
+
+        clear();
+        LOGGER.info("Loading holograms from storage in the background...");
+
+        HologramLoader loader = new HologramLoader((JsonHologramSaver) saver,
+                Forge20Holograms.getInstance().getConfig().getLoadSpawnBudget());
+        loader.start();
+        activeLoad = loader;
+    }
+
+    /**
+     * Stops the active staged load, if there is one, so it doesn't create holograms after a reload
+     */
+    private static void cancelLoad() {
+        HologramLoader loader = activeLoad;
+
+        if (loader != null) {
+            loader.cancel();
+            activeLoad = null;
+        }
+    }
+
+    /**
+     * Creates and spawns a hologram read by the {@link HologramLoader}. Called on the server thread
+     *
+     * @param entry The hologram as it was read from storage
+     */
+    static void createLoaded(HologramLoader.Entry entry) {
+        if (HOLOGRAMS.containsKey(entry.getId().toLowerCase())) {
+            LOGGER.warn("Hologram {} was created while holograms were loading, keeping the new one", entry.getId());
+            return;
+        }
+
+        ForgeHologram hologram;
+        loading = true;
+        try {
+            hologram = entry.create();
+        } finally {
+            loading = false;
+        }
+
+        hologram.spawn();
+    }
+
+    private static void finishLoad(HologramLoader loader) {
+        if (activeLoad != loader) {
+            return;
+        }
+
+        activeLoad = null;
+        LOGGER.debug("Hologram entity ids: {}", EntityIdAllocator.describe());
+
+        loadScoreboardHolograms();
+        LOGGER.debug("Scoreboard objectives: {}", ScoreboardSnapshots.describe());
+    }
+
+    /**
+     * Waits for the active staged load to finish reading storage. The saver then holds the json of the holograms
+     * that haven't been created yet, so a save doesn't drop them from the file
+     *
+     * @return The active load, or null if there isn't one
+     */
+    private static HologramLoader awaitLoadRead() {
+        HologramLoader loader = activeLoad;
+
+        if (loader != null) {
+            loader.awaitRead();
+        }
+
+        return loader;
+    }
+
+    /**
+     * Writes every hologram. While a staged load is creating holograms only the ones that exist are written
+     * again, the rest are kept as they were read
+     */
+    private static void saveAll() {
+        if (awaitLoadRead() == null) {
+            saver.save(Lists.newArrayList(HOLOGRAMS.values()));
+        } else {
+            saver.save(Lists.newArrayList(HOLOGRAMS.values()), Sets.newHashSet(HOLOGRAMS.keySet()));
+        }
+    }
+
+    /**
+     * Queues a save of every hologram. Saves are written behind by the {@link HologramSaveQueue}, so
+     * calling this repeatedly within the save window only writes the file once
+     */
     public static void save() {
-        UtilConcurrency.runAsync(() -> {
+        HologramSaveQueue.markAllDirty();
+    }
+
+    /**
+     * Queues a save of a single hologram that was changed, created or removed
+     *
+     * @param id The hologram's id
+     */
+    public static void save(String id) {
+        if (loading) {
+            return;
+        }
+
+        HologramSaveQueue.markDirty(id);
+    }
+
+    /**
+     * Writes the holograms collected by the save queue. Called from the save queue's thread
+     *
+     * @param dirty The ids of the holograms that changed, or null to rewrite all of them
+     * @return true if the holograms were written
+     */
+    static boolean writePending(Set<String> dirty) {
+        try {
             // Save regular holograms
-            saver.save(Lists.newArrayList(HOLOGRAMS.values()));
-            
+            if (dirty == null) {
+                saveAll();
+            } else {
+                awaitLoadRead();
+                saver.save(Lists.newArrayList(HOLOGRAMS.values()), dirty);
+            }
+
             // Save scoreboard holograms separately
             saveScoreboardHolograms();
-        });
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Failed to save holograms", e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes whatever the save queue still holds on the calling thread. Only the holograms marked as changed
+     * are written, unless a save of every hologram was queued
+     */
+    public static void saveSync() {
+        Set<String> dirty = HologramSaveQueue.drain();
+
+        if (dirty == null) {
+            saveAll();
+        } else if (!dirty.isEmpty()) {
+            awaitLoadRead();
+            saver.save(Lists.newArrayList(HOLOGRAMS.values()), dirty);
+        }
     }
 
     public static void addHologram(Hologram hologram) {
@@ -163,7 +389,13 @@ public class HologramManager implements Runnable {
     }
 
     public static void addHologram(ForgeHologram hologram) {
-        HOLOGRAMS.put(hologram.getId().toLowerCase(), hologram);
+        ForgeHologram previous = HOLOGRAMS.put(hologram.getId().toLowerCase(), hologram);
+
+        if (previous != null && previous != hologram) {
+            INDEX.remove(previous);
+        }
+
+        INDEX.update(hologram);
     }
 
     public static void removeHologram(Hologram hologram) {
@@ -175,7 +407,57 @@ public class HologramManager implements Runnable {
     }
 
     public static void removeHologram(ForgeHologram hologram) {
-        HOLOGRAMS.remove(hologram.getId().toLowerCase());
+        ForgeHologram removed = HOLOGRAMS.remove(hologram.getId().toLowerCase());
+
+        if (removed != null && removed != hologram) {
+            INDEX.remove(removed);
+        }
+
+        INDEX.remove(hologram);
+    }
+
+    /**
+     * Re-indexes the hologram after its world, position or range has changed
+     *
+     * @param hologram The hologram that changed
+     */
+    public static void updateLocation(ForgeHologram hologram) {
+        if (!isRegistered(hologram)) {
+            return;
+        }
+
+        INDEX.update(hologram);
+    }
+
+    /**
+     * Gets all holograms within the radius of the position, using the spatial index
+     *
+     * @param world The world to search in
+     * @param x The x position to search from
+     * @param y The y position to search from
+     * @param z The z position to search from
+     * @param radius The radius to search in
+     * @return The holograms found
+     */
+    public static List<Hologram> getNearby(Level world, double x, double y, double z, double radius) {
+        if (world == null) {
+            return Collections.emptyList();
+        }
+
+        List<Hologram> nearby = Lists.newArrayList();
+        double radiusSquared = radius * radius;
+
+        for (ForgeHologram hologram : INDEX.query(world.dimension(), x, z, radius)) {
+            if (hologram.getPosition().distanceToSqr(x, y, z) <= radiusSquared) {
+                nearby.add(hologram);
+            }
+        }
+
+        return nearby;
+    }
+
+    private static boolean isRegistered(ForgeHologram hologram) {
+        return hologram != null && HOLOGRAMS.get(hologram.getId().toLowerCase()) == hologram;
     }
 
     public static Hologram getById(String id) {
@@ -281,9 +563,6 @@ public class HologramManager implements Runnable {
                     data.emptyFormat
                 );
                 
-                // Force initial update
-                hologram.forceUpdate();
-                
                 LOGGER.info("Recreated scoreboard hologram '{}' for objective '{}'", data.id, data.objectiveName);
                 
             } catch (Exception e) {
@@ -354,23 +633,39 @@ public class HologramManager implements Runnable {
      * This should be called from the main server thread
      */
     public static void tick() {
-        if (ServerLifecycleHooks.getCurrentServer() == null) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+
+        if (server == null) {
             return;
         }
 
+        HologramLoader loader = activeLoad;
+
+        if (loader != null && loader.tick(server)) {
+            finishLoad(loader);
+        }
+
+        // Scan the scoreboard objectives that are due first, so their holograms show the new scores this tick
+        HologramScheduler.schedule(HologramScheduler.Category.SCOREBOARD, ScoreboardSnapshots.class, 0.0D,
+                () -> ScoreboardSnapshots.tick(server));
+
+        // Only the animated lines due for a new frame this tick are touched
+        AnimationWheel.tick();
+
         for (ForgeHologram hologram : HOLOGRAMS.values()) {
             if (hologram == null || hologram.getWorld() == null) {
                 continue; 
             }
             
-            // Tick all holograms (for animations)
-            hologram.tick();
-            
-            // Additional scoreboard-specific ticking
-            if (hologram instanceof ScoreboardHologram) {
-                ((ScoreboardHologram) hologram).tick();
+            // Scoreboard ticking, only once there's something new to show
+            if (hologram instanceof ScoreboardHologram && ((ScoreboardHologram) hologram).isOutdated()) {
+                HologramScheduler.schedule(HologramScheduler.Category.SCOREBOARD, hologram,
+                        hologram.getNearestViewerDistance(), ((ScoreboardHologram) hologram)::tick);
             }
         }
+
+        // Whatever doesn't fit in this tick's budget runs first next tick
+        HologramScheduler.run();
     }
 
     private void checkHolograms() {
@@ -378,89 +673,108 @@ public class HologramManager implements Runnable {
             return;
         }
         
+        VisibilityDiff diff = new VisibilityDiff();
+
         for (ServerPlayer player : ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayers()) {
             if (player == null || player.level() == null) {
                 continue; // Skip if player or their level is null
             }
-            
-            for (ForgeHologram hologram : HOLOGRAMS.values()) {
-                if (hologram == null || hologram.getWorld() == null) {
-                    continue; // Skip if hologram or its world is null
-                }
-                
-                boolean isNearby = hologram.getNearbyPlayers().contains(player.getUUID());
-                
-                if (!hologram.getWorld().equals(player.level())) {
-                    if (isNearby) {
-                        hologram.getNearbyPlayers().remove(player.getUUID());
-
-                        // Despawn item if this is an ItemHologram
-                        if (hologram instanceof ItemHologram) {
-                            UtilConcurrency.runSync(() -> ((ItemHologram) hologram).despawnItemFor(player));
-                        }
-                        
-                        for (HologramLine line : hologram.getLines()) {
-                            if (line != null) { // Check if line is not null
-                                UtilConcurrency.runSync(() -> line.despawnForPlayer(player));
-                            }
-                        }
-                    }
 
-                    continue;
+            // Only look at the holograms in the cells around the player, plus the ones they can
+            // already see so they get despawned once the player leaves their range
+            Set<ForgeHologram> viewing = PLAYER_VIEWS.computeIfAbsent(player.getUUID(), uuid -> ConcurrentHashMap.newKeySet());
+            Set<ForgeHologram> candidates = Sets.newHashSet(viewing);
+            candidates.addAll(INDEX.query(player.level().dimension(), player.getX(), player.getZ(), INDEX.getMaxRange()));
+
+            for (ForgeHologram hologram : candidates) {
+                if (hologram == null || hologram.getWorld() == null || !isRegistered(hologram)) {
+                    viewing.remove(hologram);
+                    continue; // Skip if hologram or its world is null, or it has been deleted
                 }
+                
+                boolean inRange = hologram.getWorld().equals(player.level())
+                        && player.distanceToSqr(hologram.getPosition()) <= (Math.pow(hologram.getRange(), 2));
 
-                if (player.distanceToSqr(hologram.getPosition()) > (Math.pow(hologram.getRange(), 2))) {
-                    if (isNearby) {
-                        hologram.getNearbyPlayers().remove(player.getUUID());
-
-                        // Despawn item if this is an ItemHologram
-                        if (hologram instanceof ItemHologram) {
-                            UtilConcurrency.runSync(() -> ((ItemHologram) hologram).despawnItemFor(player));
-                        }
-                        
-                        for (HologramLine line : hologram.getLines()) {
-                            if (line != null) { // Check if line is not null
-                                UtilConcurrency.runSync(() -> line.despawnForPlayer(player));
-                            }
-                        }
+                // The viewer set is synchronized, so add/remove tell us atomically if the player's state changed
+                if (!inRange) {
+                    if (hologram.getNearbyPlayers().remove(player)) {
+                        diff.despawn(hologram, player);
                     }
 
+                    viewing.remove(hologram);
                     continue;
                 }
 
-                if (!hologram.getNearbyPlayers().contains(player.getUUID())) {
-                    // Spawn item first if this is an ItemHologram
-                    if (hologram instanceof ItemHologram) {
-                        UtilConcurrency.runSync(() -> ((ItemHologram) hologram).spawnItemFor(player));
-                    }
-                    
-                    for (HologramLine line : hologram.getLines()) {
-                        if (line != null) { // Check if line is not null
-                            UtilConcurrency.runSync(() -> {
-                                line.spawnForPlayer(player);
-                            });
-                        }
-                    }
-
-                    hologram.getNearbyPlayers().add(player.getUUID());
-                } else {
-                     // This else block was refreshing every tick, which is wasteful and might be causing flicker or issues
-                     // Forge19 does NOT update every tick unless it's an animated line.
-                     // We should only update if it's animated or if we need to force an update.
-                     
-                    for (HologramLine line : hologram.getLines()) {
-                        if (line != null && line instanceof AnimatedHologramLine) {
-                             // Only update animated lines here. 
-                             // Normal lines don't need constant packet spam.
-                             // The tick() method handles the actual animation logic.
-                             // But wait, the tick() method updates for all nearby players.
-                             // So we don't need to do ANYTHING here for already-nearby players
-                             // unless we are handling general periodic refreshes.
-                        }
-                    }
+                if (hologram.getNearbyPlayers().add(player)) {
+                    diff.spawn(hologram, player);
                 }
+
+                viewing.add(hologram);
             }
         }
+
+        // One task per pass, no matter how many lines and players changed
+        submit(diff);
+    }
+
+    /**
+     * Hands the diff to the server thread as a single task, run by the {@link HologramScheduler} at the end
+     * of the next tick
+     *
+     * @param diff The spawns and despawns found by this pass
+     */
+    private static void submit(VisibilityDiff diff) {
+        if (diff.isEmpty()) {
+            return;
+        }
+
+        PENDING_OPERATIONS.addAndGet(diff.size());
+        diff.markSubmitted();
+
+        // Spawns and despawns are for players right next to the holograms, so they go ahead of the tick's other work
+        HologramScheduler.schedule(HologramScheduler.Category.VISIBILITY, null, 0.0D, () -> {
+            long latency = diff.getWaitNanos();
+            lastHandoffLatency = latency;
+            maxHandoffLatency = Math.max(maxHandoffLatency, latency);
+
+            try {
+                diff.apply();
+            } finally {
+                PENDING_OPERATIONS.addAndGet(-diff.size());
+            }
+
+            if (Forge20Holograms.getInstance().getConfig().isDebug()) {
+                LOGGER.info("Applied {} hologram visibility changes after waiting {}ms ({} still queued)",
+                        diff.size(), TimeUnit.NANOSECONDS.toMillis(latency), PENDING_OPERATIONS.get());
+            }
+        });
+    }
+
+    /**
+     * Gets the number of spawns and despawns handed to the server thread that haven't been applied yet
+     *
+     * @return The number of queued operations
+     */
+    public static int getPendingVisibilityOperations() {
+        return PENDING_OPERATIONS.get();
+    }
+
+    /**
+     * Gets how long the last visibility diff waited for the server thread to pick it up
+     *
+     * @return The latency in milliseconds
+     */
+    public static long getLastHandoffLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastHandoffLatency);
+    }
+
+    /**
+     * Gets the longest a visibility diff has waited for the server thread to pick it up
+     *
+     * @return The latency in milliseconds
+     */
+    public static long getMaxHandoffLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxHandoffLatency);
     }
 
     private static class PlayerEventListener {
@@ -481,12 +795,22 @@ public class HologramManager implements Runnable {
             if (playerUUID == null) {
                 return;
             }
+
+            HologramManager.PLAYER_VIEWS.remove(playerUUID);
+            UtilPacket.clear(playerUUID);
             
-            for (ForgeHologram value : HologramManager.HOLOGRAMS.values()) {
-                if (value != null && value.getNearbyPlayers() != null) {
-                    value.getNearbyPlayers().remove(playerUUID);
+            if (event.getEntity() instanceof ServerPlayer) {
+                ServerPlayer player = (ServerPlayer) event.getEntity();
+
+                for (ForgeHologram value : HologramManager.HOLOGRAMS.values()) {
+                    if (value != null && value.getNearbyPlayers() != null) {
+                        value.getNearbyPlayers().remove(player);
+                    }
                 }
             }
+
+            // Only free the index once the player is out of every viewer set, or the next player to join inherits it
+            PlayerSessionIndex.release(playerUUID);
         }
         
         @SubscribeEvent
@@ -494,6 +818,8 @@ public class HologramManager implements Runnable {
             if (event == null || event.getEntity() == null || !(event.getEntity() instanceof ServerPlayer)) {
                 return;
             }
+
+            PlayerSessionIndex.assign((ServerPlayer) event.getEntity());
             
             // When a player logs in, refresh all holograms to make them check visibility
             for (ForgeHologram hologram : HologramManager.HOLOGRAMS.values()) {
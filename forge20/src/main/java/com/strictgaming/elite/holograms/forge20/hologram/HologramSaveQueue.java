@@ -0,0 +1,130 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *
+ * Write-behind queue for hologram saves. Edits only mark holograms as dirty, and the first edit in a
+ * window schedules a single flush for the end of it, so a burst of edits (adding lines one by one,
+ * loading a batch of holograms) is written to disk once instead of once per edit
+ *
+ */
+public class HologramSaveQueue {
+
+    private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
+
+    private static final Set<String> DIRTY = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean FULL_SAVE = new AtomicBoolean();
+    private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EliteHolograms-SaveQueue");
+        thread.setDaemon(true);
+        // Gson needs the mod classloader to find the hologram classes, same as UtilConcurrency.runAsync
+        thread.setContextClassLoader(HologramSaveQueue.class.getClassLoader());
+        return thread;
+    });
+
+    private static volatile long windowMillis = 1000L;
+
+    private HologramSaveQueue() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Marks the hologram as changed or removed and schedules a flush
+     *
+     * @param id The hologram's id
+     */
+    public static void markDirty(String id) {
+        if (id == null) {
+            return;
+        }
+
+        DIRTY.add(id.toLowerCase());
+        schedule();
+    }
+
+    /**
+     * Schedules a flush that rewrites every hologram, used when the caller doesn't know which ones changed
+     */
+    public static void markAllDirty() {
+        FULL_SAVE.set(true);
+        schedule();
+    }
+
+    /**
+     * Sets how long edits are collected for before they're written
+     *
+     * @param millis The window in milliseconds, 0 writes on the next run of the save thread
+     */
+    public static void setWindow(long millis) {
+        windowMillis = Math.max(0L, millis);
+    }
+
+    /**
+     * Takes every pending edit off the queue, used by a synchronous save that writes them itself
+     *
+     * @return The ids of the holograms that changed, or null if every hologram has to be rewritten
+     */
+    public static Set<String> drain() {
+        boolean full = FULL_SAVE.getAndSet(false);
+        Set<String> dirty = Sets.newHashSet();
+        Iterator<String> iterator = DIRTY.iterator();
+
+        while (iterator.hasNext()) {
+            dirty.add(iterator.next());
+            iterator.remove();
+        }
+
+        return full ? null : dirty;
+    }
+
+    public static boolean hasPending() {
+        return FULL_SAVE.get() || !DIRTY.isEmpty();
+    }
+
+    private static void schedule() {
+        if (!SCHEDULED.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            EXECUTOR.schedule(HologramSaveQueue::flush, windowMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            SCHEDULED.set(false);
+            LOGGER.error("Failed to schedule hologram save", e);
+        }
+    }
+
+    /**
+     * Writes everything marked since the last flush. Edits made while this runs schedule the next flush
+     */
+    public static void flush() {
+        SCHEDULED.set(false);
+
+        Set<String> dirty = drain();
+
+        if (dirty != null && dirty.isEmpty()) {
+            return;
+        }
+
+        if (!HologramManager.writePending(dirty)) {
+            // Keep the edits so the next flush (or the shutdown save) retries them
+            if (dirty == null) {
+                FULL_SAVE.set(true);
+            } else {
+                DIRTY.addAll(dirty);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * Runs the hologram work of a server tick within a time budget. Work is queued by category, at most once per
+ * hologram or line per category, and run nearest to a player first until the budget is spent. Whatever is left
+ * is carried over and runs first next tick, so a burst of frame flips or scoreboard rebuilds is spread over a
+ * few ticks instead of pushing one over
+ *
+ */
+public class HologramScheduler {
+
+    private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
+
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Work carried over from an earlier tick first, then nearest to a player, then in the order it was queued
+     */
+    private static final Comparator<Task> ORDER = Comparator.<Task>comparingLong(task -> task.tick)
+            .thenComparingDouble(task -> task.priority)
+            .thenComparingLong(task -> task.sequence);
+
+    private static final Queue<Task> INBOX = new ConcurrentLinkedQueue<>();
+    private static final PriorityQueue<Task> QUEUE = new PriorityQueue<>(ORDER);
+    private static final Map<Category, Set<Object>> PENDING = Maps.newEnumMap(Category.class);
+    private static final AtomicLongArray NANOS = new AtomicLongArray(Category.values().length);
+    private static final AtomicLongArray RUNS = new AtomicLongArray(Category.values().length);
+    private static final AtomicLongArray CARRIED = new AtomicLongArray(Category.values().length);
+
+    private static volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    private static long currentTick = 0L;
+    private static long sequence = 0L;
+    private static long lastLog = 0L;
+
+    static {
+        for (Category category : Category.values()) {
+            PENDING.put(category, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private HologramScheduler() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Sets how long the hologram work of a tick may take. The first task of a tick always runs, so work is
+     * never stuck behind a budget that's too small for it
+     *
+     * @param nanos The budget in nanoseconds
+     */
+    public static void setBudget(long nanos) {
+        budgetNanos = Math.max(0L, nanos);
+    }
+
+    /**
+     * Queues work for the next run of the scheduler. Can be called from any thread
+     *
+     * @param category What kind of work it is, for the time counters
+     * @param owner What the work is for, the same owner is only queued once per category until its work has
+     *              run. null if the work can't be merged with other work
+     * @param priority How far the owner is from the nearest player, squared, lower runs first
+     * @param task The work
+     * @return true if the work was queued, false if the owner already had work of the category queued
+     */
+    public static boolean schedule(Category category, Object owner, double priority, Runnable task) {
+        if (owner != null && !PENDING.get(category).add(owner)) {
+            return false;
+        }
+
+        INBOX.offer(new Task(category, owner, priority, task));
+        return true;
+    }
+
+    /**
+     * Runs the queued work until the tick's budget is spent. Called at the end of every server tick on the
+     * server thread
+     */
+    public static void run() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        Task task;
+
+        while ((task = INBOX.poll()) != null) {
+            task.tick = currentTick;
+            task.sequence = sequence++;
+            QUEUE.add(task);
+        }
+
+        long now = start;
+
+        while (!QUEUE.isEmpty() && (now == start || now < deadline)) {
+            task = QUEUE.poll();
+
+            if (task.owner != null) {
+                PENDING.get(task.category).remove(task.owner);
+            }
+
+            try {
+                task.runnable.run();
+            } catch (Exception e) {
+                LOGGER.error("Error running hologram {} work", task.category.getName(), e);
+            }
+
+            long end = System.nanoTime();
+            NANOS.addAndGet(task.category.ordinal(), end - now);
+            RUNS.incrementAndGet(task.category.ordinal());
+            now = end;
+        }
+
+        currentTick++;
+
+        if (QUEUE.isEmpty()) {
+            return;
+        }
+
+        for (Task carried : QUEUE) {
+            CARRIED.incrementAndGet(carried.category.ordinal());
+        }
+
+        if (now - lastLog >= LOG_INTERVAL_NANOS) {
+            lastLog = now;
+            LOGGER.debug("Hologram work took {}ms, {} tasks carried over to the next tick: {}",
+                    String.format("%.2f", (now - start) / (double) TimeUnit.MILLISECONDS.toNanos(1)), QUEUE.size(), describe());
+        }
+    }
+
+    /**
+     * Drops the queued work of every hologram, for when every hologram is removed at once. Work without an owner
+     * still runs, it may have to settle counters
+     */
+    public static void clear() {
+        INBOX.removeIf(task -> task.owner != null);
+        QUEUE.removeIf(task -> task.owner != null);
+
+        for (Set<Object> pending : PENDING.values()) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Gets how much time work of the category has taken since the server started
+     *
+     * @param category The category
+     * @return The time in nanoseconds
+     */
+    public static long getNanos(Category category) {
+        return NANOS.get(category.ordinal());
+    }
+
+    /**
+     * Gets how many tasks of the category have run since the server started
+     *
+     * @param category The category
+     * @return The number of tasks
+     */
+    public static long getRuns(Category category) {
+        return RUNS.get(category.ordinal());
+    }
+
+    /**
+     * Gets how many times a task of the category was left for the next tick because the budget was spent
+     *
+     * @param category The category
+     * @return The number of times work was carried over
+     */
+    public static long getCarried(Category category) {
+        return CARRIED.get(category.ordinal());
+    }
+
+    /**
+     * Describes how much time each category of work has taken, for logging
+     *
+     * @return The description
+     */
+    public static String describe() {
+        StringJoiner joiner = new StringJoiner(", ");
+
+        for (Category category : Category.values()) {
+            joiner.add(String.format("%s %.2fms over %d tasks (%d carried over)", category.getName(),
+                    getNanos(category) / (double) TimeUnit.MILLISECONDS.toNanos(1), getRuns(category), getCarried(category)));
+        }
+
+        return joiner.toString();
+    }
+
+    /**
+     * The kinds of hologram work, each with its own time counters
+     */
+    public enum Category {
+
+        ANIMATION("animation"),
+        SCOREBOARD("scoreboard"),
+        VISIBILITY("visibility");
+
+        private final String name;
+
+        Category(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private static class Task {
+
+        private final Category category;
+        private final Object owner;
+        private final double priority;
+        private final Runnable runnable;
+        private long tick;
+        private long sequence;
+
+        private Task(Category category, Object owner, double priority, Runnable runnable) {
+            this.category = category;
+            this.owner = owner;
+            this.priority = priority;
+            this.runnable = runnable;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ *
+ * Per-dimension spatial index that buckets {@link ForgeHologram}s by the chunk they sit in, so
+ * range lookups only have to look at the cells around a position instead of every hologram
+ *
+ * The index is read by the HologramManager thread and written by the server thread, so every
+ * structure in here is a concurrent one. The number of holograms with each range is counted, so the
+ * largest range shrinks again as soon as the hologram holding it is moved to a smaller range
+ *
+ */
+public class HologramSpatialIndex {
+
+    private static final int CELL_SHIFT = 4; // 16 block cells, same as a chunk
+
+    private final Map<ResourceKey<Level>, Map<Long, Set<ForgeHologram>>> cells = Maps.newConcurrentMap();
+    private final Map<ForgeHologram, Cell> locations = Maps.newConcurrentMap();
+    private final ConcurrentNavigableMap<Integer, Integer> rangeCounts = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds the hologram to the index, or moves it to its new cell if it is already indexed
+     *
+     * @param hologram The hologram to index
+     */
+    public void update(ForgeHologram hologram) {
+        if (hologram == null || hologram.getWorld() == null || hologram.getPosition() == null) {
+            return;
+        }
+
+        Vec3 position = hologram.getPosition();
+        Cell cell = new Cell(hologram.getWorld().dimension(),
+                toCell(position.x), toCell(position.z), hologram.getRange());
+        Cell previous = this.locations.put(hologram, cell);
+
+        this.countRange(cell.range, 1);
+
+        if (previous != null) {
+            this.countRange(previous.range, -1);
+
+            if (previous.equals(cell)) {
+                return;
+            }
+
+            this.removeFromCell(previous, hologram);
+        }
+
+        this.cells.computeIfAbsent(cell.dimension, key -> Maps.newConcurrentMap())
+                .computeIfAbsent(cell.key(), key -> ConcurrentHashMap.newKeySet())
+                .add(hologram);
+    }
+
+    /**
+     * Removes the hologram from the index
+     *
+     * @param hologram The hologram to remove
+     */
+    public void remove(ForgeHologram hologram) {
+        if (hologram == null) {
+            return;
+        }
+
+        Cell previous = this.locations.remove(hologram);
+
+        if (previous != null) {
+            this.removeFromCell(previous, hologram);
+            this.countRange(previous.range, -1);
+        }
+    }
+
+    /**
+     * Removes all holograms from the index
+     */
+    public void clear() {
+        this.cells.clear();
+        this.locations.clear();
+        this.rangeCounts.clear();
+    }
+
+    /**
+     * Gets every hologram in the given dimension whose cell overlaps the radius around the position.
+     * The result is a broad phase only, callers still need to do their own distance check
+     *
+     * @param dimension The dimension to search in
+     * @param x The x position to search from
+     * @param z The z position to search from
+     * @param radius The radius to search in
+     * @return The holograms found
+     */
+    public List<ForgeHologram> query(ResourceKey<Level> dimension, double x, double z, double radius) {
+        Map<Long, Set<ForgeHologram>> dimensionCells = this.cells.get(dimension);
+
+        if (dimensionCells == null || dimensionCells.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int minX = toCell(x - radius);
+        int maxX = toCell(x + radius);
+        int minZ = toCell(z - radius);
+        int maxZ = toCell(z + radius);
+        List<ForgeHologram> found = Lists.newArrayList();
+
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                Set<ForgeHologram> holograms = dimensionCells.get(key(cellX, cellZ));
+
+                if (holograms != null) {
+                    found.addAll(holograms);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Gets the largest view range of any indexed hologram, which is how far a player query has to reach
+     *
+     * @return The max range in blocks
+     */
+    public int getMaxRange() {
+        Map.Entry<Integer, Integer> largest = this.rangeCounts.lastEntry();
+        return largest == null ? 0 : largest.getKey();
+    }
+
+    public int size() {
+        return this.locations.size();
+    }
+
+    private void removeFromCell(Cell cell, ForgeHologram hologram) {
+        Map<Long, Set<ForgeHologram>> dimensionCells = this.cells.get(cell.dimension);
+
+        if (dimensionCells == null) {
+            return;
+        }
+
+        dimensionCells.computeIfPresent(cell.key(), (key, holograms) -> {
+            holograms.remove(hologram);
+            return holograms.isEmpty() ? null : holograms;
+        });
+    }
+
+    private void countRange(int range, int change) {
+        this.rangeCounts.compute(range, (key, count) -> {
+            int updated = (count == null ? 0 : count) + change;
+            return updated <= 0 ? null : updated;
+        });
+    }
+
+    private static int toCell(double coordinate) {
+        return ((int) Math.floor(coordinate)) >> CELL_SHIFT;
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Cell {
+
+        private final ResourceKey<Level> dimension;
+        private final int x;
+        private final int z;
+        // The range the hologram was counted with, not part of which cell this is
+        private final int range;
+
+        private Cell(ResourceKey<Level> dimension, int x, int z, int range) {
+            this.dimension = dimension;
+            this.x = x;
+            this.z = z;
+            this.range = range;
+        }
+
+        private long key() {
+            return HologramSpatialIndex.key(this.x, this.z);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Cell)) {
+                return false;
+            }
+
+            Cell other = (Cell) o;
+            return this.x == other.x && this.z == other.z && this.dimension.equals(other.dimension);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.dimension.hashCode() + this.x) + this.z;
+        }
+    }
+}
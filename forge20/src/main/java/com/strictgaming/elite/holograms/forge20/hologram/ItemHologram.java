@@ -1,6 +1,7 @@
 package com.strictgaming.elite.holograms.forge20.hologram;
 
-import com.strictgaming.elite.holograms.forge20.util.UtilPlayer;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.EntityIdAllocator;
+import com.strictgaming.elite.holograms.forge20.util.UtilPacket;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
@@ -17,7 +18,6 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 
 import java.util.List;
-import java.util.UUID;
 
 /**
  * A hologram that displays a floating item with text lines below it
@@ -25,7 +25,6 @@ import java.util.UUID;
 public class ItemHologram extends ForgeHologram {
     
     private static final double ITEM_TEXT_GAP = 0.8; // Gap between item and first text line
-    private static int entityIdCounter = -5000;
     
     private final String itemId;
     private transient ArmorStand itemStand;
@@ -42,7 +41,7 @@ public class ItemHologram extends ForgeHologram {
             this.addLines(lines);
         }
         
-        HologramManager.save();
+        HologramManager.save(this.getId());
     }
     
     private void initItemStand() {
@@ -59,7 +58,7 @@ public class ItemHologram extends ForgeHologram {
         this.itemStand.setNoGravity(true);
         this.itemStand.setCustomNameVisible(false);
         this.itemStand.setBoundingBox(this.itemStand.getBoundingBox().inflate(-0.95, -0.95, -0.95));
-        this.itemStand.setId(getNextEntityId());
+        this.itemStand.setId(EntityIdAllocator.allocate());
         
         // Set the item in the armor stand's head slot for better visibility
         this.itemStand.setItemSlot(EquipmentSlot.HEAD, itemStack);
@@ -96,20 +95,20 @@ public class ItemHologram extends ForgeHologram {
         }
         
         // Send spawn packet
-        player.connection.send(new ClientboundAddEntityPacket(this.itemStand));
+        UtilPacket.send(player, new ClientboundAddEntityPacket(this.itemStand));
         
         // Send equipment packet to show the item
         try {
             List<com.mojang.datafixers.util.Pair<EquipmentSlot, ItemStack>> equipment = 
                 List.of(com.mojang.datafixers.util.Pair.of(EquipmentSlot.HEAD, itemStack));
-            player.connection.send(new ClientboundSetEquipmentPacket(this.itemStand.getId(), equipment));
+            UtilPacket.send(player, new ClientboundSetEquipmentPacket(this.itemStand.getId(), equipment));
         } catch (Exception e) {
             e.printStackTrace();
         }
         
         // Send entity data
         try {
-            player.connection.send(new ClientboundSetEntityDataPacket(
+            UtilPacket.send(player, new ClientboundSetEntityDataPacket(
                 this.itemStand.getId(), 
                 this.itemStand.getEntityData().getNonDefaultValues()));
         } catch (Exception e) {
@@ -125,7 +124,7 @@ public class ItemHologram extends ForgeHologram {
             return;
         }
         
-        player.connection.send(new ClientboundRemoveEntitiesPacket(this.itemStand.getId()));
+        UtilPacket.send(player, new ClientboundRemoveEntitiesPacket(this.itemStand.getId()));
     }
     
     public String getItemId() {
@@ -139,11 +138,8 @@ public class ItemHologram extends ForgeHologram {
     @Override
     public void teleport(String worldName, double x, double y, double z) {
         // Despawn item for all nearby players
-        for (UUID playerUUID : getNearbyPlayers()) {
-            ServerPlayer player = UtilPlayer.getOnlinePlayer(playerUUID);
-            if (player != null) {
-                despawnItemFor(player);
-            }
+        for (ServerPlayer player : getNearbyPlayers().getPlayers()) {
+            despawnItemFor(player);
         }
 
         // Call parent teleport to handle lines and world/position update
@@ -159,11 +155,8 @@ public class ItemHologram extends ForgeHologram {
     @Override
     public void move(double x, double y, double z) {
         // First despawn the item for all nearby players
-        for (UUID playerUUID : getNearbyPlayers()) {
-            ServerPlayer player = UtilPlayer.getOnlinePlayer(playerUUID);
-            if (player != null) {
-                despawnItemFor(player);
-            }
+        for (ServerPlayer player : getNearbyPlayers().getPlayers()) {
+            despawnItemFor(player);
         }
         
         // Call parent to move text lines
@@ -173,14 +166,11 @@ public class ItemHologram extends ForgeHologram {
         this.itemStand.moveTo(x, y + ITEM_TEXT_GAP, z);
         
         // Respawn item for all nearby players
-        for (UUID playerUUID : getNearbyPlayers()) {
-            ServerPlayer player = UtilPlayer.getOnlinePlayer(playerUUID);
-            if (player != null) {
-                spawnItemFor(player);
-            }
+        for (ServerPlayer player : getNearbyPlayers().getPlayers()) {
+            spawnItemFor(player);
         }
         
-        HologramManager.save();
+        HologramManager.save(this.getId());
     }
     
     @Override
@@ -197,19 +187,22 @@ public class ItemHologram extends ForgeHologram {
     @Override
     public void despawn() {
         // Despawn item for all nearby players
-        for (UUID playerUUID : getNearbyPlayers()) {
-            ServerPlayer player = UtilPlayer.getOnlinePlayer(playerUUID);
-            if (player != null) {
-                despawnItemFor(player);
-            }
+        for (ServerPlayer player : getNearbyPlayers().getPlayers()) {
+            despawnItemFor(player);
         }
         
         // Call parent to despawn text lines
         super.despawn();
     }
-    
-    private static synchronized int getNextEntityId() {
-        return entityIdCounter--;
+
+    @Override
+    public void releaseEntityIds() {
+        super.releaseEntityIds();
+
+        if (this.itemStand != null) {
+            EntityIdAllocator.release(this.itemStand.getId());
+            this.itemStand = null;
+        }
     }
 }
 
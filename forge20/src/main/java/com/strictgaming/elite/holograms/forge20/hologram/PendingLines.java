@@ -0,0 +1,37 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
+
+import java.util.List;
+
+/**
+ *
+ * Lines that were read from storage but haven't been built into {@link HologramLine}s yet. A hologram
+ * holding pending lines builds them the first time they're needed, normally when it's first spawned
+ * for a player. Savers can read them back through a {@link Visitor} without building them
+ *
+ */
+public interface PendingLines {
+
+    /**
+     * Gets how many lines there are, without decoding them
+     *
+     * @return The number of lines
+     */
+    int size();
+
+    /**
+     * Decodes the lines in order
+     *
+     * @param visitor The visitor called for each line
+     */
+    void accept(Visitor visitor);
+
+    interface Visitor {
+
+        void text(String text);
+
+        void animated(List<String> frames, int intervalSeconds);
+
+    }
+}
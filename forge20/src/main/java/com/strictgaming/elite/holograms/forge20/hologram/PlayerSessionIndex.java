@@ -0,0 +1,144 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Maps;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ *
+ * Hands every online player a small dense index for the length of their session, so hologram viewer sets
+ * can be bitsets instead of lists of UUIDs. Indices are recycled when players log out, lowest free first,
+ * which keeps the bitsets as short as the player count.
+ *
+ */
+public final class PlayerSessionIndex {
+
+    private static final Map<UUID, Integer> INDICES = Maps.newConcurrentMap();
+    private static final BitSet USED = new BitSet();
+    private static volatile AtomicReferenceArray<ServerPlayer> players = new AtomicReferenceArray<>(64);
+
+    private PlayerSessionIndex() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Gets the player's index, assigning one if they don't have one yet. Only called on the server thread when
+     * a player logs in or respawns, so an index can't be handed to a player that already left
+     *
+     * @param player The player
+     * @return The player's index
+     */
+    public static int assign(ServerPlayer player) {
+        Integer index = INDICES.get(player.getUUID());
+
+        // Respawning creates a new player object, so the stored one is refreshed when it changes
+        if (index != null && players.get(index) == player) {
+            return index;
+        }
+
+        synchronized (USED) {
+            index = INDICES.get(player.getUUID());
+
+            if (index == null) {
+                index = USED.nextClearBit(0);
+                USED.set(index);
+                INDICES.put(player.getUUID(), index);
+            }
+
+            if (index >= players.length()) {
+                AtomicReferenceArray<ServerPlayer> grown = new AtomicReferenceArray<>(Math.max(index + 1, players.length() * 2));
+
+                for (int i = 0; i < players.length(); i++) {
+                    grown.set(i, players.get(i));
+                }
+
+                players = grown;
+            }
+
+            players.set(index, player);
+            return index;
+        }
+    }
+
+    /**
+     * Gets the player's index without assigning one, pointing it at this player object if a respawn replaced
+     * the one it held. Safe to call from any thread, a player whose index was released doesn't get it back
+     *
+     * @param player The player
+     * @return The player's index, or -1 if they don't have one
+     */
+    public static int lookup(ServerPlayer player) {
+        Integer index = INDICES.get(player.getUUID());
+
+        if (index == null) {
+            return -1;
+        }
+
+        if (players.get(index) == player) {
+            return index;
+        }
+
+        synchronized (USED) {
+            // Checked again under the lock, release() may have freed the index since
+            index = INDICES.get(player.getUUID());
+
+            if (index == null) {
+                return -1;
+            }
+
+            players.set(index, player);
+            return index;
+        }
+    }
+
+    /**
+     * Gets the player's index without assigning one
+     *
+     * @param player The player
+     * @return The player's index, or -1 if they don't have one
+     */
+    public static int getIndex(ServerPlayer player) {
+        if (player == null) {
+            return -1;
+        }
+
+        Integer index = INDICES.get(player.getUUID());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the player holding the index
+     *
+     * @param index The index
+     * @return The player, or null if the index is free
+     */
+    public static ServerPlayer getPlayer(int index) {
+        AtomicReferenceArray<ServerPlayer> current = players;
+        return index >= 0 && index < current.length() ? current.get(index) : null;
+    }
+
+    /**
+     * Frees the player's index so it can be handed to the next player that joins. The player has to be
+     * removed from every viewer set first, or the next player would inherit their holograms
+     *
+     * @param uuid The player's UUID
+     */
+    public static void release(UUID uuid) {
+        if (uuid == null) {
+            return;
+        }
+
+        synchronized (USED) {
+            Integer index = INDICES.remove(uuid);
+
+            if (index != null) {
+                players.set(index, null);
+                USED.clear(index);
+            }
+        }
+    }
+}
@@ -1,20 +1,13 @@
 package com.strictgaming.elite.holograms.forge20.hologram;
 
-import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
-import com.strictgaming.elite.holograms.forge20.util.UtilPlayer;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
-import net.minecraft.world.scores.Objective;
-import net.minecraft.world.scores.Score;
-import net.minecraft.world.scores.Scoreboard;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A special hologram that displays top players from a scoreboard objective
@@ -32,8 +25,8 @@ public class ScoreboardHologram extends ForgeHologram {
     private final String emptyFormat;
     private final boolean isTimeObjective;
     
-    private long lastUpdate = 0;
-    private List<ScoreEntry> lastScores = new ArrayList<>();
+    private ScoreboardSnapshots.Snapshot lastSnapshot;
+    private List<ScoreboardRanking.Entry> lastScores = new ArrayList<>();
     
     public ScoreboardHologram(String id, Level world, Vec3 position, int range, 
                              String objectiveName, int topCount, int updateInterval,
@@ -41,7 +34,7 @@ public class ScoreboardHologram extends ForgeHologram {
         super(id, world, position, range, false); // Don't save initially
         
         this.objectiveName = objectiveName;
-        this.topCount = Math.max(1, Math.min(topCount, 10)); // Limit between 1-10
+        this.topCount = Math.max(1, Math.min(topCount, ScoreboardRanking.MAX_COUNT)); // Limit between 1-10
         this.updateInterval = Math.max(5, updateInterval); // Minimum 5 seconds
         
         // Detect if this is a time-based objective
@@ -52,33 +45,67 @@ public class ScoreboardHologram extends ForgeHologram {
             "§e{rank}. §f{player} §7- §a{time}" : "§e{rank}. §f{player} §7- §a{score}");
         this.emptyFormat = emptyFormat != null ? emptyFormat : "§7No data available";
         
-        // Clear any default lines and set up initial display
+        // Clear any default lines and set up initial display, from the objective's current snapshot if another
+        // hologram already shows it
         this.getLines().clear();
-        this.updateScoreboardDisplay();
+        ScoreboardSnapshots.subscribe(objectiveName, id, this.updateInterval * 1000L);
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+
+        if (snapshot == null && server != null) {
+            snapshot = ScoreboardSnapshots.refresh(server, objectiveName);
+        }
+
+        this.updateScoreboardDisplay(snapshot);
     }
     
     /**
-     * Updates the scoreboard display if enough time has passed
+     * Updates the scoreboard display once a new snapshot of the objective was published
      */
     public void tick() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastUpdate >= (updateInterval * 1000L)) {
-            updateScoreboardDisplay();
-            lastUpdate = currentTime;
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        if (snapshot != null && snapshot != lastSnapshot) {
+            updateScoreboardDisplay(snapshot);
         }
     }
+
+    /**
+     * Checks if a new snapshot of the objective was published since the display was last updated
+     *
+     * @return true if the next tick updates the display
+     */
+    public boolean isOutdated() {
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        return snapshot != null && snapshot != lastSnapshot;
+    }
     
     /**
      * Forces an immediate update of the scoreboard display
      */
     public void forceUpdate() {
-        updateScoreboardDisplay();
-        lastUpdate = System.currentTimeMillis();
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            updateScoreboardDisplay(ScoreboardSnapshots.refresh(server, objectiveName));
+        }
+    }
+
+    @Override
+    public void delete() {
+        ScoreboardSnapshots.unsubscribe(objectiveName, getId());
+        super.delete();
     }
     
-    private void updateScoreboardDisplay() {
+    /**
+     * Updates the lines if the top scores changed
+     *
+     * @param snapshot The objective's snapshot, or null if there isn't one
+     */
+    private void updateScoreboardDisplay(ScoreboardSnapshots.Snapshot snapshot) {
+        this.lastSnapshot = snapshot;
+
         try {
-            List<ScoreEntry> currentScores = getTopScores();
+            List<ScoreboardRanking.Entry> currentScores = snapshot == null
+                    ? Collections.emptyList() : snapshot.getTop(topCount);
             
             // Only update if scores have changed
             if (!scoresEqual(currentScores, lastScores)) {
@@ -91,40 +118,7 @@ public class ScoreboardHologram extends ForgeHologram {
         }
     }
     
-    private List<ScoreEntry> getTopScores() {
-        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
-        if (server == null) {
-            return Collections.emptyList();
-        }
-        
-        Scoreboard scoreboard = server.getScoreboard();
-        Objective objective = scoreboard.getObjective(objectiveName);
-        
-        if (objective == null) {
-            LOGGER.debug("Objective '{}' not found", objectiveName);
-            return Collections.emptyList();
-        }
-        
-        // Get all scores for this objective
-        Map<String, Integer> playerScores = new HashMap<>();
-        
-        // Get all player scores for this objective
-        Collection<Score> scores = scoreboard.getPlayerScores(objective);
-        for (Score score : scores) {
-            String playerName = score.getOwner();
-            int scoreValue = score.getScore();
-            playerScores.put(playerName, scoreValue);
-        }
-        
-        // Sort by score (descending) and take top N
-        return playerScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(topCount)
-                .map(entry -> new ScoreEntry(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
-    }
-    
-    private void updateHologramLines(List<ScoreEntry> scores) {
+    private void updateHologramLines(List<ScoreboardRanking.Entry> scores) {
         List<String> newLines = new ArrayList<>();
         
         // Add header
@@ -138,7 +132,7 @@ public class ScoreboardHologram extends ForgeHologram {
         } else {
             // Add player entries
             for (int i = 0; i < scores.size(); i++) {
-                ScoreEntry entry = scores.get(i);
+                ScoreboardRanking.Entry entry = scores.get(i);
                 String line = playerFormat
                         .replace("{rank}", String.valueOf(i + 1))
                         .replace("{player}", entry.playerName)
@@ -148,32 +142,19 @@ public class ScoreboardHologram extends ForgeHologram {
             }
         }
         
-        // Update hologram lines
-        // Clear existing lines first (despawn for all nearby players)
-        for (HologramLine line : getLines()) {
-            for (UUID playerUUID : getNearbyPlayers()) {
-                ServerPlayer player = UtilPlayer.getOnlinePlayer(playerUUID);
-                if (player != null) {
-                    line.despawnForPlayer(player);
-                }
-            }
-        }
-        getLines().clear();
-        
-        // Add new lines
-        for (String line : newLines) {
-            addLine(line);
-        }
+        // Update hologram lines in place, rows that kept their text send nothing and nothing is saved since
+        // scoreboard holograms are stored separately
+        updateLinesInPlace(newLines);
     }
     
-    private boolean scoresEqual(List<ScoreEntry> list1, List<ScoreEntry> list2) {
+    private boolean scoresEqual(List<ScoreboardRanking.Entry> list1, List<ScoreboardRanking.Entry> list2) {
         if (list1.size() != list2.size()) {
             return false;
         }
         
         for (int i = 0; i < list1.size(); i++) {
-            ScoreEntry entry1 = list1.get(i);
-            ScoreEntry entry2 = list2.get(i);
+            ScoreboardRanking.Entry entry1 = list1.get(i);
+            ScoreboardRanking.Entry entry2 = list2.get(i);
             
             if (!entry1.playerName.equals(entry2.playerName) || entry1.score != entry2.score) {
                 return false;
@@ -231,17 +212,4 @@ public class ScoreboardHologram extends ForgeHologram {
     public int getTopCount() { return topCount; }
     public int getUpdateInterval() { return updateInterval; }
     public boolean isTimeObjective() { return isTimeObjective; }
-    
-    /**
-     * Simple data class to hold player name and score
-     */
-    private static class ScoreEntry {
-        final String playerName;
-        final int score;
-        
-        ScoreEntry(String playerName, int score) {
-            this.playerName = playerName;
-            this.score = score;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Lists;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.Score;
+import net.minecraft.world.scores.Scoreboard;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ *
+ * Ranks the scores of a scoreboard objective for {@link ScoreboardSnapshots}. Only the best scores are kept
+ * while walking the objective, in a min-heap the size of the ranking, so nothing is copied into a map or sorted
+ * per score
+ *
+ */
+public class ScoreboardRanking {
+
+    /**
+     * The most entries a scoreboard hologram shows. Every ranking is this long, so any hologram can use it
+     */
+    public static final int MAX_COUNT = 10;
+
+    /**
+     * Best score first, equal scores in name order so they don't swap places between refreshes
+     */
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.score).reversed()
+            .thenComparing(entry -> entry.playerName);
+
+    private ScoreboardRanking() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Walks every score of the objective once, keeping the best ones in a min-heap. The scores are read
+     * per tracked player, as the scoreboard's own list of an objective's scores is a sorted copy of all of them
+     *
+     * @param scoreboard The scoreboard
+     * @param objective The objective
+     * @param count How many entries to keep
+     * @return The entries, best first
+     */
+    public static List<Entry> rank(Scoreboard scoreboard, Objective objective, int count) {
+        // The worst kept entry is at the head, so a better score only has to beat that one
+        PriorityQueue<Entry> heap = new PriorityQueue<>(count + 1, ORDER.reversed());
+
+        for (String owner : scoreboard.getTrackedPlayers()) {
+            Score score = scoreboard.getPlayerScores(owner).get(objective);
+
+            if (score == null) {
+                continue;
+            }
+
+            int value = score.getScore();
+
+            if (heap.size() < count) {
+                heap.add(new Entry(owner, value));
+            } else if (isBetter(owner, value, heap.peek())) {
+                heap.poll();
+                heap.add(new Entry(owner, value));
+            }
+        }
+
+        List<Entry> top = Lists.newArrayList(heap);
+        top.sort(ORDER);
+        return Collections.unmodifiableList(top);
+    }
+
+    private static boolean isBetter(String owner, int value, Entry worst) {
+        return value > worst.score || (value == worst.score && owner.compareTo(worst.playerName) < 0);
+    }
+
+    /**
+     * A player's name and score
+     */
+    public static class Entry {
+
+        public final String playerName;
+        public final int score;
+
+        public Entry(String playerName, int score) {
+            this.playerName = playerName;
+            this.score = score;
+        }
+    }
+}
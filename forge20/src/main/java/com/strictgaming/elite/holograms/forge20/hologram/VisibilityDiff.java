@@ -0,0 +1,145 @@
+package com.strictgaming.elite.holograms.forge20.hologram;
+
+import com.google.common.collect.Lists;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.AnimatedHologramLine;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * The spawns and despawns found by one visibility pass of the HologramManager thread. The whole
+ * diff is handed to the server thread as a single task instead of one task per line per player
+ *
+ */
+public class VisibilityDiff {
+
+    private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
+
+    private final List<Operation> operations = Lists.newArrayList();
+    private long submittedAt;
+
+    /**
+     * Records that the hologram has to be spawned for the player
+     *
+     * @param hologram The hologram
+     * @param player The player
+     */
+    public void spawn(ForgeHologram hologram, ServerPlayer player) {
+        this.operations.add(new Operation(hologram, player, true));
+    }
+
+    /**
+     * Records that the hologram has to be despawned for the player
+     *
+     * @param hologram The hologram
+     * @param player The player
+     */
+    public void despawn(ForgeHologram hologram, ServerPlayer player) {
+        this.operations.add(new Operation(hologram, player, false));
+    }
+
+    public boolean isEmpty() {
+        return this.operations.isEmpty();
+    }
+
+    public int size() {
+        return this.operations.size();
+    }
+
+    /**
+     * Marks the time the diff was handed to the server thread, used for the handoff latency metric
+     */
+    public void markSubmitted() {
+        this.submittedAt = System.nanoTime();
+    }
+
+    /**
+     * Gets how long the diff has been waiting since it was submitted
+     *
+     * @return The wait time in nanoseconds
+     */
+    public long getWaitNanos() {
+        return System.nanoTime() - this.submittedAt;
+    }
+
+    /**
+     * Sends every recorded spawn and despawn. Must be called from the main server thread. Players are looked
+     * up again, the diff may have waited until after a player left or respawned
+     */
+    public void apply() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+
+        if (server == null) {
+            return;
+        }
+
+        for (Operation operation : this.operations) {
+            ServerPlayer player = server.getPlayerList().getPlayer(operation.player);
+
+            if (player == null) {
+                continue;
+            }
+
+            try {
+                if (operation.spawn) {
+                    spawnFor(operation.hologram, player);
+                } else {
+                    despawnFor(operation.hologram, player);
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Error updating hologram visibility for player", e);
+            }
+        }
+    }
+
+    private static void spawnFor(ForgeHologram hologram, ServerPlayer player) {
+        // Spawn item first if this is an ItemHologram
+        if (hologram instanceof ItemHologram) {
+            ((ItemHologram) hologram).spawnItemFor(player);
+        }
+
+        for (HologramLine line : hologram.getLines()) {
+            if (line instanceof AnimatedHologramLine) {
+                // Animations stand still while nobody sees them, catch up to the frame the clock is at
+                AnimationWheel.resume((AnimatedHologramLine) line);
+            }
+
+            if (line != null) { // Check if line is not null
+                line.spawnForPlayer(player);
+            }
+        }
+    }
+
+    private static void despawnFor(ForgeHologram hologram, ServerPlayer player) {
+        // Despawn item if this is an ItemHologram
+        if (hologram instanceof ItemHologram) {
+            ((ItemHologram) hologram).despawnItemFor(player);
+        }
+
+        for (HologramLine line : hologram.getLines()) {
+            if (line != null) { // Check if line is not null
+                line.despawnForPlayer(player);
+            }
+        }
+    }
+
+    private static final class Operation {
+
+        private final ForgeHologram hologram;
+        private final UUID player;
+        private final boolean spawn;
+
+        private Operation(ForgeHologram hologram, ServerPlayer player, boolean spawn) {
+            this.hologram = hologram;
+            this.player = player.getUUID();
+            this.spawn = spawn;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.strictgaming.elite.holograms.forge20.hologram.database;
+
+import com.strictgaming.elite.holograms.api.hologram.Hologram;
+import com.strictgaming.elite.holograms.api.manager.database.HologramSaver;
+import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologram;
+import com.strictgaming.elite.holograms.forge20.hologram.HologramManager;
+import com.strictgaming.elite.holograms.forge20.hologram.ItemHologram;
+import com.strictgaming.elite.holograms.forge20.hologram.PendingLines;
+import com.strictgaming.elite.holograms.forge20.hologram.ScoreboardHologram;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.AnimatedHologramLine;
+import com.strictgaming.elite.holograms.forge20.hologram.entity.HologramLine;
+import com.strictgaming.elite.holograms.forge20.util.UtilWorld;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Binary implementation of the {@link HologramSaver} interface, for servers with a lot of holograms
+ *
+ * Layout (version 1), where varints are unsigned LEB128 and strings are a varint length followed by UTF-8:
+ * - int magic, varint version
+ * - string table: varint count, then the strings. Holds every world name and every line or frame that
+ *   is used more than once
+ * - varint hologram count, then per hologram: id, varint world index, double x, y, z, varint range,
+ *   byte type (0 basic, 1 item) followed by the item id for items, and a varint length prefixed lines block
+ * - lines block: varint count, then per line a byte kind (0 text, 1 animated). Text lines hold one text
+ *   reference, animated lines a varint interval in seconds, a varint frame count and a reference per frame
+ * - a text reference is a varint, an even value is a string table index times two and an odd value is the
+ *   length of an inline string times two plus one, with the bytes following it
+ *
+ * The file is read through a memory mapping. Only the ids, positions and string table are decoded up front,
+ * every lines block is kept as bytes and decoded when its hologram is first spawned
+ *
+ */
+public class BinaryHologramSaver implements HologramSaver {
+
+    private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
+
+    private static final int MAGIC = 0x45484246; // EHBF
+    private static final int VERSION = 1;
+    private static final byte TYPE_BASIC = 0;
+    private static final byte TYPE_ITEM = 1;
+    private static final byte LINE_TEXT = 0;
+    private static final byte LINE_ANIMATED = 1;
+
+    private final File file;
+
+    public BinaryHologramSaver(File file) {
+        this.file = file;
+
+        File parent = file.getAbsoluteFile().getParentFile();
+
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Hologram> load() throws IOException {
+        Map<String, Hologram> holograms = Maps.newHashMap();
+
+        if (!this.file.exists() || this.file.length() == 0) {
+            return holograms;
+        }
+
+        // The mapping is only read from while loading. Nothing keeps a reference to it afterwards, so the
+        // file can be replaced by the next save
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary hologram file: " + this.file);
+            }
+
+            int version = readVarInt(buffer);
+
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary hologram version " + version);
+            }
+
+            String[] table = new String[readVarInt(buffer)];
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = readString(buffer);
+            }
+
+            Level[] worlds = new Level[table.length];
+            int count = readVarInt(buffer);
+
+            for (int i = 0; i < count; i++) {
+                String id = readString(buffer);
+                int worldIndex = readVarInt(buffer);
+                Vec3 position = new Vec3(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+                int range = readVarInt(buffer);
+                byte type = buffer.get();
+                String itemId = type == TYPE_ITEM ? readString(buffer) : null;
+                byte[] lines = new byte[readVarInt(buffer)];
+                buffer.get(lines);
+
+                if (worlds[worldIndex] == null) {
+                    worlds[worldIndex] = UtilWorld.findWorld(table[worldIndex]);
+                }
+
+                if (worlds[worldIndex] == null) {
+                    LOGGER.warn("Could not find world {} for hologram {}", table[worldIndex], id);
+                    continue;
+                }
+
+                if (holograms.containsKey(id.toLowerCase())) {
+                    LOGGER.info("Duplicate hologram ID: {}", id);
+                    continue;
+                }
+
+                ForgeHologram hologram = itemId != null
+                        ? new ItemHologram(id, worlds[worldIndex], position, range, itemId)
+                        : new ForgeHologram(id, worlds[worldIndex], position, range, false);
+
+                BinaryLines pending = new BinaryLines(lines, table);
+
+                if (pending.size() > 0) {
+                    hologram.setPendingLines(pending);
+                }
+
+                HologramManager.addHologram(hologram);
+                holograms.put(id.toLowerCase(), hologram);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated binary hologram file: " + this.file, e);
+        }
+
+        LOGGER.info("Loaded {} holograms from {}", holograms.size(), this.file);
+        return holograms;
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        return this.file.exists();
+    }
+
+    @Override
+    public synchronized void save(List<Hologram> holograms) {
+        List<StoredHologram> stored = Lists.newArrayList();
+        Map<String, Integer> uses = Maps.newHashMap();
+
+        for (Hologram hologram : holograms) {
+            if (!(hologram instanceof ForgeHologram) || hologram instanceof ScoreboardHologram) {
+                continue;
+            }
+
+            StoredHologram entry = new StoredHologram((ForgeHologram) hologram);
+            stored.add(entry);
+
+            // World names always go in the table, lines only when they repeat
+            uses.put(entry.world, Integer.MAX_VALUE);
+
+            for (StoredLine line : entry.lines) {
+                for (String text : line.texts) {
+                    uses.merge(text, 1, (a, b) -> a == Integer.MAX_VALUE ? a : a + b);
+                }
+            }
+        }
+
+        List<String> table = Lists.newArrayList();
+        Map<String, Integer> tableIndex = Maps.newHashMap();
+
+        for (Map.Entry<String, Integer> entry : uses.entrySet()) {
+            if (entry.getValue() > 1) {
+                tableIndex.put(entry.getKey(), table.size());
+                table.add(entry.getKey());
+            }
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeInt(out, MAGIC);
+            writeVarInt(out, VERSION);
+            writeVarInt(out, table.size());
+
+            for (String text : table) {
+                writeString(out, text);
+            }
+
+            writeVarInt(out, stored.size());
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+
+            for (StoredHologram entry : stored) {
+                writeString(out, entry.id);
+                writeVarInt(out, tableIndex.get(entry.world));
+                writeDouble(out, entry.position.x);
+                writeDouble(out, entry.position.y);
+                writeDouble(out, entry.position.z);
+                writeVarInt(out, entry.range);
+
+                if (entry.itemId != null) {
+                    out.write(TYPE_ITEM);
+                    writeString(out, entry.itemId);
+                } else {
+                    out.write(TYPE_BASIC);
+                }
+
+                lines.reset();
+                writeVarInt(lines, entry.lines.size());
+
+                for (StoredLine line : entry.lines) {
+                    if (line.animated) {
+                        lines.write(LINE_ANIMATED);
+                        writeVarInt(lines, line.intervalSeconds);
+                        writeVarInt(lines, line.texts.size());
+                    } else {
+                        lines.write(LINE_TEXT);
+                    }
+
+                    for (String text : line.texts) {
+                        writeTextReference(lines, text, tableIndex);
+                    }
+                }
+
+                writeVarInt(out, lines.size());
+                lines.writeTo(out);
+            }
+
+            this.write(out);
+            LOGGER.debug("Saved {} holograms to {} ({} bytes)", stored.size(), this.file, out.size());
+        } catch (IOException e) {
+            LOGGER.error("Error saving holograms: {}", e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void write(ByteArrayOutputStream data) throws IOException {
+        File tempFile = new File(this.file.getPath() + ".tmp");
+
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            data.writeTo(out);
+            out.getChannel().force(true);
+        }
+
+        try {
+            Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeTextReference(ByteArrayOutputStream out, String text, Map<String, Integer> tableIndex) {
+        Integer index = tableIndex.get(text);
+
+        if (index != null) {
+            writeVarInt(out, index << 1);
+            return;
+        }
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, (bytes.length << 1) | 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readTextReference(ByteBuffer buffer, String[] table) {
+        int reference = readVarInt(buffer);
+
+        if ((reference & 1) == 0) {
+            return table[reference >>> 1];
+        }
+
+        byte[] bytes = new byte[reference >>> 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readVarInt(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IndexOutOfBoundsException("Varint too long");
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double value) {
+        long bits = Double.doubleToLongBits(value);
+        writeInt(out, (int) (bits >>> 32));
+        writeInt(out, (int) bits);
+    }
+
+    /**
+     *
+     * A lines block copied out of the file, decoded the first time the hologram needs its lines
+     *
+     */
+    private static final class BinaryLines implements PendingLines {
+
+        private final byte[] data;
+        private final String[] table;
+        private final int size;
+
+        private BinaryLines(byte[] data, String[] table) {
+            this.data = data;
+            this.table = table;
+            this.size = data.length == 0 ? 0 : readVarInt(ByteBuffer.wrap(data));
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public void accept(Visitor visitor) {
+            ByteBuffer buffer = ByteBuffer.wrap(this.data);
+            int count = readVarInt(buffer);
+
+            for (int i = 0; i < count; i++) {
+                byte kind = buffer.get();
+
+                if (kind == LINE_ANIMATED) {
+                    int intervalSeconds = readVarInt(buffer);
+                    int frameCount = readVarInt(buffer);
+                    List<String> frames = Lists.newArrayListWithCapacity(frameCount);
+
+                    for (int j = 0; j < frameCount; j++) {
+                        frames.add(readTextReference(buffer, this.table));
+                    }
+
+                    visitor.animated(frames, intervalSeconds);
+                } else {
+                    visitor.text(readTextReference(buffer, this.table));
+                }
+            }
+        }
+    }
+
+    private static final class StoredHologram {
+
+        private final String id;
+        private final String world;
+        private final Vec3 position;
+        private final int range;
+        private final String itemId;
+        private final List<StoredLine> lines = Lists.newArrayList();
+
+        private StoredHologram(ForgeHologram hologram) {
+            this.id = hologram.getId();
+            this.world = UtilWorld.getName(hologram.getWorld());
+            this.position = hologram.getPosition();
+            this.range = hologram.getRange();
+            this.itemId = hologram instanceof ItemHologram ? ((ItemHologram) hologram).getItemId() : null;
+
+            PendingLines pending = hologram.getPendingLines();
+
+            // Lines that haven't been built yet are copied as they are, saving runs off the server thread
+            if (pending != null) {
+                pending.accept(new PendingLines.Visitor() {
+                    @Override
+                    public void text(String text) {
+                        lines.add(new StoredLine(Lists.newArrayList(text), false, 0));
+                    }
+
+                    @Override
+                    public void animated(List<String> frames, int intervalSeconds) {
+                        lines.add(new StoredLine(frames, true, intervalSeconds));
+                    }
+                });
+                return;
+            }
+
+            for (HologramLine line : hologram.getLines()) {
+                if (line instanceof AnimatedHologramLine) {
+                    AnimatedHologramLine animated = (AnimatedHologramLine) line;
+                    // Convert ticks to seconds
+                    this.lines.add(new StoredLine(animated.getFrames(), true, animated.getIntervalTicks() / 20));
+                } else {
+                    this.lines.add(new StoredLine(Lists.newArrayList(line.getText() == null ? "" : line.getText()), false, 0));
+                }
+            }
+        }
+    }
+
+    private static final class StoredLine {
+
+        private final List<String> texts;
+        private final boolean animated;
+        private final int intervalSeconds;
+
+        private StoredLine(List<String> texts, boolean animated, int intervalSeconds) {
+            this.texts = texts;
+            this.animated = animated;
+            this.intervalSeconds = intervalSeconds;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.strictgaming.elite.holograms.forge20.hologram.database;
+
+import com.strictgaming.elite.holograms.api.hologram.Hologram;
+import com.strictgaming.elite.holograms.api.manager.database.HologramCodec;
+import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologram;
+import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologramTypeAdapter;
+import com.strictgaming.elite.holograms.forge20.hologram.HologramManager;
+import com.strictgaming.elite.holograms.forge20.hologram.ScoreboardHologram;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * Encodes single holograms with the same json as {@link JsonHologramSaver}, for the savers that store
+ * holograms one record at a time
+ *
+ */
+public class JsonHologramCodec implements HologramCodec {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ForgeHologram.class, new ForgeHologramTypeAdapter())
+            .create();
+
+    @Override
+    public byte[] encode(Hologram hologram) throws IOException {
+        // Scoreboard holograms are stored in their own config
+        if (!(hologram instanceof ForgeHologram) || hologram instanceof ScoreboardHologram) {
+            return null;
+        }
+
+        return GSON.toJson(hologram, ForgeHologram.class).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Hologram decode(byte[] data) throws IOException {
+        ForgeHologram hologram;
+
+        try {
+            hologram = GSON.fromJson(new String(data, StandardCharsets.UTF_8), ForgeHologram.class);
+        } catch (Exception e) {
+            throw new IOException("Invalid hologram data", e);
+        }
+
+        if (hologram != null) {
+            HologramManager.addHologram(hologram);
+        }
+
+        return hologram;
+    }
+}
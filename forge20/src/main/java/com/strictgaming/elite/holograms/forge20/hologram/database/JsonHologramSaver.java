@@ -5,30 +5,37 @@ import com.strictgaming.elite.holograms.api.manager.database.HologramSaver;
 import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologram;
 import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologramTypeAdapter;
 import com.strictgaming.elite.holograms.forge20.hologram.HologramManager;
-import com.google.common.collect.Lists;
+import com.strictgaming.elite.holograms.forge20.hologram.HologramLoader;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.lang.reflect.Modifier;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  *
  * Json implementation of the {@link HologramSaver} interface
  *
+ * The json last written for each hologram is kept, so saving a few changed holograms only serializes
+ * those. The file is always written to a temporary file first and moved over the old one, so a crash
+ * mid-write can't leave a truncated holograms.json behind
+ *
  */
 public class JsonHologramSaver implements HologramSaver {
 
@@ -39,10 +46,10 @@ public class JsonHologramSaver implements HologramSaver {
             .registerTypeAdapter(ForgeHologram.class, new ForgeHologramTypeAdapter())
             .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.STATIC)
             .create();
-            
-    private static final Type FORGE_HOLOGRAM_LIST_TYPE = new TypeToken<ArrayList<ForgeHologram>>(){}.getType();
 
     private File file;
+    private final Map<String, JsonElement> written = Maps.newLinkedHashMap();
+    private boolean primed = false;
 
     public JsonHologramSaver(String filePath) {
         // Make sure we use a file, not a directory
@@ -77,8 +84,10 @@ public class JsonHologramSaver implements HologramSaver {
     }
 
     @Override
-    public Map<String, Hologram> load() {
+    public synchronized Map<String, Hologram> load() {
         Map<String, Hologram> holograms = Maps.newHashMap();
+        this.written.clear();
+        this.primed = false;
 
         try {
             if (this.file.length() == 0) {
@@ -91,16 +100,18 @@ public class JsonHologramSaver implements HologramSaver {
             
             // Load from file
             InputStreamReader jsonReader = new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8);
-            List<ForgeHologram> forgeHolograms = GSON.fromJson(jsonReader, FORGE_HOLOGRAM_LIST_TYPE);
+            JsonArray elements = GSON.fromJson(jsonReader, JsonArray.class);
             jsonReader.close();
 
-            if (forgeHolograms == null) {
+            if (elements == null) {
                 LOGGER.info("No holograms found in file (null list)");
                 return holograms;
             }
 
-            LOGGER.info("Successfully deserialized {} holograms from file", forgeHolograms.size());
-            for (ForgeHologram hologram : forgeHolograms) {
+            LOGGER.info("Successfully read {} holograms from file", elements.size());
+            for (JsonElement element : elements) {
+                ForgeHologram hologram = GSON.fromJson(element, ForgeHologram.class);
+
                 if (hologram == null) {
                     LOGGER.info("Skipping null hologram");
                     continue;
@@ -116,7 +127,10 @@ public class JsonHologramSaver implements HologramSaver {
                 HologramManager.addHologram(hologram);
                 // Cast to Hologram for the return map
                 holograms.put(hologram.getId().toLowerCase(), hologram);
+                this.written.put(hologram.getId().toLowerCase(), element);
             }
+
+            this.primed = true;
         } catch (Exception e) {
             LOGGER.error("Error loading holograms: {}", e.getMessage());
             e.printStackTrace();
@@ -125,42 +139,134 @@ public class JsonHologramSaver implements HologramSaver {
         return holograms;
     }
 
+    /**
+     *
+     * Streams the holograms in the file one at a time without creating them, for the {@link HologramLoader}.
+     * Doesn't hold the saver's lock, a save meanwhile replaces the file rather than writing into it
+     *
+     * @param consumer Called with the json of each hologram, in file order
+     * @throws IOException If the file can't be read or isn't a json array
+     */
+    public void read(Consumer<JsonElement> consumer) throws IOException {
+        if (!this.file.exists() || this.file.length() == 0) {
+            return;
+        }
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8))) {
+            reader.setLenient(true);
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                consumer.accept(JsonParser.parseReader(reader));
+            }
+
+            reader.endArray();
+        }
+    }
+
+    /**
+     *
+     * Takes the json the {@link HologramLoader} read as what was last written. Saves made while the loaded
+     * holograms are still being created then only serialize the holograms that changed, and keep the ones
+     * that haven't been created yet as they were read
+     *
+     * @param elements The json of every hologram read, by lowercase id
+     */
+    public synchronized void prime(Map<String, JsonElement> elements) {
+        this.written.clear();
+        this.written.putAll(elements);
+        this.primed = true;
+    }
+
+    /**
+     *
+     * Drops holograms the {@link HologramLoader} read but didn't load because their world is missing, so the
+     * next save leaves them out the same way {@link #load()} does
+     *
+     * @param ids The lowercase ids of the holograms
+     */
+    public synchronized void forget(Set<String> ids) {
+        this.written.keySet().removeAll(ids);
+    }
+
     @Override
-    public void save(List<Hologram> holograms) {
+    public synchronized void save(List<Hologram> holograms) {
         LOGGER.debug("Saving {} holograms to file", holograms.size());
-        
-        try {
-            OutputStreamWriter jsonWriter = new OutputStreamWriter(new FileOutputStream(this.file), StandardCharsets.UTF_8);
-            List<ForgeHologram> savedHolograms = Lists.newArrayList();
 
-            for (Hologram hologram : holograms) {
-                if (!(hologram instanceof ForgeHologram)) {
-                    continue;
-                }
-                
-                // Skip scoreboard-type holograms 
-                if (hologram.getClass().getName().contains("ScoreboardHologram")) {
-                    LOGGER.debug("Skipping ScoreboardHologram '{}' from save (not serializable)", hologram.getId());
-                    continue;
-                }
-                
-                // Skip ItemHologram for now if not handled properly by TypeAdapter or specialized saver
-                if (hologram.getClass().getName().contains("ItemHologram")) {
-                    // If ItemHologram extends ForgeHologram, it might be saved but without item metadata
-                    // unless TypeAdapter handles it. 
-                    // Assuming TypeAdapter handles lines, it will save text lines but lose item data 
-                    // if we don't update TypeAdapter. 
-                    // For now, let it save as text hologram to avoid errors, or skip if intended.
-                    // Since user mentioned animations, this is likely about animated lines, not item holograms.
-                }
+        this.written.clear();
+
+        for (Hologram hologram : holograms) {
+            if (this.isSaved(hologram)) {
+                this.written.put(hologram.getId().toLowerCase(), GSON.toJsonTree(hologram, ForgeHologram.class));
+            }
+        }
 
-                savedHolograms.add((ForgeHologram) hologram);
+        this.primed = true;
+        this.write();
+    }
+
+    @Override
+    public synchronized void save(List<Hologram> holograms, Set<String> changed) {
+        // Nothing to reuse until the file has been read or fully written once
+        if (!this.primed) {
+            this.save(holograms);
+            return;
+        }
+
+        LOGGER.debug("Saving {} changed holograms to file", changed.size());
+
+        Map<String, Hologram> byId = Maps.newHashMap();
+
+        for (Hologram hologram : holograms) {
+            byId.put(hologram.getId().toLowerCase(), hologram);
+        }
+
+        for (String id : changed) {
+            Hologram hologram = byId.get(id.toLowerCase());
+
+            if (this.isSaved(hologram)) {
+                this.written.put(id.toLowerCase(), GSON.toJsonTree(hologram, ForgeHologram.class));
+            } else {
+                this.written.remove(id.toLowerCase());
+            }
+        }
+
+        this.write();
+    }
+
+    private boolean isSaved(Hologram hologram) {
+        if (!(hologram instanceof ForgeHologram)) {
+            return false;
+        }
+
+        // Skip scoreboard-type holograms
+        if (hologram.getClass().getName().contains("ScoreboardHologram")) {
+            LOGGER.debug("Skipping ScoreboardHologram '{}' from save (not serializable)", hologram.getId());
+            return false;
+        }
+
+        return true;
+    }
+
+    private void write() {
+        JsonArray savedHolograms = new JsonArray();
+
+        for (JsonElement element : this.written.values()) {
+            savedHolograms.add(element);
+        }
+
+        File tempFile = new File(this.file.getPath() + ".tmp");
+
+        try {
+            try (OutputStreamWriter jsonWriter = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+                GSON.toJson(savedHolograms, jsonWriter);
             }
 
-            LOGGER.debug("Saving {} holograms to file", savedHolograms.size());
-            GSON.toJson(savedHolograms, FORGE_HOLOGRAM_LIST_TYPE, jsonWriter);
-            jsonWriter.flush();
-            jsonWriter.close();
+            try {
+                Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             LOGGER.error("Error saving holograms: {}", e.getMessage());
             e.printStackTrace();
@@ -4,7 +4,6 @@ import com.strictgaming.elite.holograms.forge20.util.UtilChatColour;
 import com.strictgaming.elite.holograms.forge20.util.UtilPlaceholder;
 import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.decoration.ArmorStand;
 import java.util.List;
 
 /**
@@ -15,10 +14,10 @@ public class AnimatedHologramLine extends HologramLine {
     private transient final List<String> frames;
     private transient final int intervalTicks;
     private transient int currentFrameIndex = 0;
-    private transient int ticksSinceLastUpdate = 0;
+    private transient long startTick = -1L;
 
-    public AnimatedHologramLine(ArmorStand armorStand, List<String> frames, int intervalTicks) {
-        super(armorStand);
+    public AnimatedHologramLine(double x, double y, double z, List<String> frames, int intervalTicks) {
+        super(x, y, z);
         this.frames = frames;
         this.intervalTicks = intervalTicks;
         
@@ -29,28 +28,55 @@ public class AnimatedHologramLine extends HologramLine {
     }
 
     /**
-     * Update the animation state
+     * Starts the line's clock, its frames are counted from this tick on. Only the first call counts
+     *
+     * @param tick The animation wheel's current tick
+     */
+    public void start(long tick) {
+        if (startTick < 0) {
+            startTick = tick;
+        }
+    }
+
+    /**
+     * Shows the frame the line's clock is at. The frames it missed while nobody could see it are skipped, the
+     * text is only parsed again if the frame changed
+     *
+     * @param tick The animation wheel's current tick
      * @return true if the frame changed
      */
-    public boolean tick(long currentTick) {
-        if (frames.isEmpty() || frames.size() < 2) {
+    public boolean showFrameAt(long tick) {
+        if (frames.size() < 2 || startTick < 0) {
             return false;
         }
 
-        ticksSinceLastUpdate++;
-        
-        if (ticksSinceLastUpdate >= intervalTicks) {
-            ticksSinceLastUpdate = 0;
-            currentFrameIndex = (currentFrameIndex + 1) % frames.size();
-            
-            // Use the raw text setter from parent to update the armor stand's name internally
-            // This ensures that if updateForPlayer is called later (e.g. new player), it sees the correct text
-            this.setText(frames.get(currentFrameIndex));
-            
-            return true;
+        int frameIndex = (int) (((tick - startTick) / getPeriod()) % frames.size());
+
+        if (frameIndex == currentFrameIndex) {
+            return false;
         }
-        
-        return false;
+
+        currentFrameIndex = frameIndex;
+
+        // Use the text setter from parent to update the line's name
+        // This ensures that if updateForPlayer is called later (e.g. new player), it sees the correct text
+        this.setText(frames.get(currentFrameIndex));
+        return true;
+    }
+
+    /**
+     * Gets the first tick after the given one that the line's frame changes at
+     *
+     * @param tick The animation wheel's current tick
+     * @return The tick of the next frame change
+     */
+    public long getNextFrameTick(long tick) {
+        long period = getPeriod();
+        return startTick + ((tick - startTick) / period + 1) * period;
+    }
+
+    private int getPeriod() {
+        return Math.max(1, intervalTicks);
     }
     
     @Override
@@ -59,15 +85,15 @@ public class AnimatedHologramLine extends HologramLine {
             return;
         }
         
-        ArmorStand armorStand = getArmorStand();
-        if (armorStand == null) return;
-
         // Get current frame text
         String currentText = frames.get(currentFrameIndex);
         
         // Update parent text so it matches current frame
         // This is important so that super.updateForPlayer or other logic uses the correct base text
-        this.setText(currentText);
+        // showFrameAt() already sets it when the frame changes, so only re-parse if it's out of sync
+        if (!currentText.equals(this.getText())) {
+            this.setText(currentText);
+        }
         
         // Delegate to parent update logic which handles placeholders, packet sending, etc.
         // properly using the text we just set
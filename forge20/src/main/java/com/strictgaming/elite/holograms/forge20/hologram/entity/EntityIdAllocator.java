@@ -0,0 +1,105 @@
+package com.strictgaming.elite.holograms.forge20.hologram.entity;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Hands out the entity ids every hologram entity is sent to clients with, text lines and item stands alike.
+ * The ids come from a negative range vanilla never uses, since it counts entity ids up from 0. Ids released
+ * by lines and holograms that are gone go on a free list and are handed out again before the range is
+ * advanced, so holograms that keep replacing their lines don't run through it. None of this locks
+ *
+ */
+public final class EntityIdAllocator {
+
+    private static final int FIRST_ID = -2000000000;
+    private static final int LAST_ID = -1000000000;
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(FIRST_ID);
+    private static final Queue<Integer> FREE_IDS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IN_USE = new AtomicInteger();
+    private static final AtomicLong RECYCLED = new AtomicLong();
+
+    private EntityIdAllocator() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Gets an entity id nothing else is using
+     *
+     * @return The entity id
+     * @throws IllegalStateException If every id in the range is in use
+     */
+    public static int allocate() {
+        Integer free = FREE_IDS.poll();
+
+        if (free != null) {
+            IN_USE.incrementAndGet();
+            RECYCLED.incrementAndGet();
+            return free;
+        }
+
+        int id = NEXT_ID.getAndUpdate(next -> next <= LAST_ID ? next + 1 : next);
+
+        if (id > LAST_ID) {
+            throw new IllegalStateException("Every hologram entity id is in use");
+        }
+
+        IN_USE.incrementAndGet();
+        return id;
+    }
+
+    /**
+     * Gives an id back to be handed out again. It must have been despawned for every player first, and must
+     * only be released once
+     *
+     * @param id The entity id
+     */
+    public static void release(int id) {
+        if (id < FIRST_ID || id > LAST_ID) {
+            return;
+        }
+
+        FREE_IDS.offer(id);
+        IN_USE.decrementAndGet();
+    }
+
+    /**
+     * Gets how many ids are held right now
+     *
+     * @return The number of ids in use
+     */
+    public static int getInUse() {
+        return IN_USE.get();
+    }
+
+    /**
+     * Gets how many ids have been taken from the range, in use or waiting on the free list
+     *
+     * @return The number of ids reserved
+     */
+    public static int getReserved() {
+        return NEXT_ID.get() - FIRST_ID;
+    }
+
+    /**
+     * Gets how many times an id was handed out from the free list instead of the range
+     *
+     * @return The number of recycled ids handed out
+     */
+    public static long getRecycled() {
+        return RECYCLED.get();
+    }
+
+    /**
+     * Describes the allocator's usage, for logging
+     *
+     * @return The description
+     */
+    public static String describe() {
+        return getInUse() + " in use, " + getReserved() + " reserved, " + getRecycled() + " recycled";
+    }
+}
@@ -2,94 +2,53 @@ package com.strictgaming.elite.holograms.forge20.hologram.entity;
 
 import com.strictgaming.elite.holograms.forge20.Forge20Holograms;
 import com.strictgaming.elite.holograms.forge20.util.UtilChatColour;
-import com.strictgaming.elite.holograms.forge20.util.UtilPlaceholder;
-import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import com.strictgaming.elite.holograms.forge20.util.UtilPacket;
+import com.strictgaming.elite.holograms.forge20.util.PlaceholderTemplate;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
-import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
-import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
-import net.minecraft.world.level.Level;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.phys.Vec3;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Field;
+import java.util.UUID;
 
 /**
- * Manages a single line in a hologram
+ * Manages a single line in a hologram. The line has no armor stand behind it, it keeps a {@link LineDescriptor}
+ * and its packets are built from that by {@link HologramPackets}
  */
 public class HologramLine {
 
     private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
-    private static int ENTITY_ID = -1000; // Start with a negative ID to avoid conflicts
+    private static final Component EMPTY_NAME = Component.literal(" ");
 
-    private transient ArmorStand armorStand;
+    private transient volatile LineDescriptor descriptor;
     private transient String text;
+    private transient PlaceholderTemplate template;
+    private transient boolean released = false;
 
-    public HologramLine(ArmorStand armorStand) {
-        this.armorStand = armorStand;
-        this.setupArmorStand();
+    public HologramLine(double x, double y, double z) {
+        this.descriptor = new LineDescriptor(EntityIdAllocator.allocate(), UUID.randomUUID(), x, y, z, EMPTY_NAME, true);
     }
 
-    private void setupArmorStand() {
+    public void setText(String text) {
         try {
-            // Set a unique entity ID first
-            this.armorStand.setId(ENTITY_ID--);
-            
-            // Make the armor stand completely invisible but show the custom name
-            this.armorStand.setInvisible(true);
-            this.armorStand.setNoGravity(true);
-            this.armorStand.setSilent(true);
-            this.armorStand.setCustomNameVisible(true);
-            this.armorStand.setInvulnerable(true);
-            
-            // Don't use potentially private methods
-            // this.armorStand.setSmall(true); // This is private in 1.20
-            // this.armorStand.setNoBasePlate(true); // Might also be private
-            // this.armorStand.setShowArms(false); // Might also be private
-            
-            // Try setting marker flag via reflection as it's safer
-            try {
-                Field markerField = ArmorStand.class.getDeclaredField("marker");
-                markerField.setAccessible(true);
-                markerField.set(this.armorStand, true);
-            } catch (Exception e) {
-                LOGGER.debug("Failed to set marker flag via reflection - this is normal", e);
-            }
-            
-            // Set minimal size bounding box
-            try {
-                this.armorStand.setBoundingBox(this.armorStand.getBoundingBox().inflate(-0.99, -0.99, -0.99));
-            } catch (Exception e) {
-                LOGGER.debug("Could not shrink bounding box", e);
+            // Store the raw text, only re-compiling the placeholders when it actually changed
+            if (this.template == null || text == null || !text.equals(this.text)) {
+                this.template = PlaceholderTemplate.compile(text);
             }
-        } catch (Exception e) {
-            LOGGER.warn("Error setting up hologram line", e);
-        }
-    }
 
-    public void setText(String text) {
-        try {
-            // Store the raw text
             this.text = text;
             
             if (text == null || text.isEmpty()) {
                 // Provide a default empty text
-                this.armorStand.setCustomName(Component.literal(" "));
-                this.armorStand.setCustomNameVisible(true);
+                this.descriptor = this.descriptor.withName(EMPTY_NAME, true);
                 return;
             }
             
             if (this.text.equals("{empty}")) {
-                this.armorStand.setCustomNameVisible(false);
-                this.armorStand.setCustomName(Component.literal(" "));
+                this.descriptor = this.descriptor.withName(EMPTY_NAME, false);
             } else {
-                // Always ensure custom name is visible
-                this.armorStand.setCustomNameVisible(true);
-                
                 // Process text with or without placeholders
                 Component textComponent;
                 if (Forge20Holograms.getInstance().arePlaceholdersEnabled()) {
@@ -98,21 +57,11 @@ public class HologramLine {
                     textComponent = UtilChatColour.parse(text.replace("%", "%%"));
                 }
                 
-                // Set the custom name
-                this.armorStand.setCustomName(textComponent);
+                this.descriptor = this.descriptor.withName(textComponent, true);
                 
                 // Log for debug
                 LOGGER.debug("Set hologram text to: {}", text);
             }
-            
-            // Force an update packet to be sent to all tracking players
-            // This is needed because sometimes setCustomName doesn't trigger an update packet immediately
-            // if the entity hasn't been ticked or spawned fully yet
-            if (this.armorStand.level() != null && !this.armorStand.level().isClientSide) {
-                // We can't easily access all players tracking this entity without reflection or iterating all players
-                // But since we have nearbyPlayers list in the Hologram class, the Hologram.addLine/setLine methods
-                // handle spawning/updating for those players explicitly.
-            }
         } catch (Exception e) {
             LOGGER.warn("Error setting hologram text: {}", text, e);
         }
@@ -121,7 +70,7 @@ public class HologramLine {
     public void despawnForPlayer(ServerPlayer player) {
         if (player != null && player.connection != null) {
             try {
-                player.connection.send(new ClientboundRemoveEntitiesPacket(this.armorStand.getId()));
+                UtilPacket.send(player, new ClientboundRemoveEntitiesPacket(this.descriptor.entityId));
             } catch (Exception e) {
                 LOGGER.debug("Error despawning hologram for player", e);
             }
@@ -134,11 +83,9 @@ public class HologramLine {
         }
 
         try {
-            ClientboundAddEntityPacket packet = new ClientboundAddEntityPacket(this.armorStand);
-            player.connection.send(packet);
-            
-            // Send an update after spawning
-            updateForPlayer(player);
+            LineDescriptor line = this.getDescriptorFor(player);
+            UtilPacket.send(player, HologramPackets.spawn(line));
+            UtilPacket.send(player, HologramPackets.data(line, true));
         } catch (Exception e) {
             LOGGER.warn("Error spawning hologram for player", e);
         }
@@ -150,109 +97,99 @@ public class HologramLine {
         }
         
         try {
-            // Update name with placeholders if enabled
-            if (Forge20Holograms.getInstance().arePlaceholdersEnabled() && text != null) {
-                try {
-                    // Generate player-specific text with placeholders
-                    String replaced = UtilPlaceholder.replacePlaceholders(player, this.text);
-                    
-                    // Only set if different to avoid unnecessary updates
-                    if (!replaced.equals(this.armorStand.getCustomName().getString())) {
-                        this.armorStand.setCustomName(UtilChatColour.parse(replaced));
-                    }
-                } catch (Exception e) {
-                    // Fall back to regular text if placeholder processing fails
-                    this.armorStand.setCustomName(UtilChatColour.parse(this.text.replace("%", "%%")));
-                    LOGGER.debug("Error processing placeholders, using fallback text", e);
-                }
-            }
-            
-            // Create a custom entity data packet for the name and visibility
-            try {
-                // For 1.20.1, we need to send both teleport and entity data
-                // First send teleport to ensure position is correct
-                this.sendTeleportPacket(player);
-                
-                // Then try to send data if possible
-                if (this.armorStand.getEntityData() != null) {
-                    ClientboundSetEntityDataPacket dataPacket = new ClientboundSetEntityDataPacket(
-                            this.armorStand.getId(), 
-                            this.armorStand.getEntityData().getNonDefaultValues());
-                    player.connection.send(dataPacket);
-                }
-            } catch (Exception e) {
-                // At minimum, ensure position is updated
-                this.sendTeleportPacket(player);
-                LOGGER.debug("Error sending entity data packet, falling back to teleport only", e);
-            }
+            LineDescriptor line = this.getDescriptorFor(player);
+
+            // Send the position along with the name, lines are repositioned without being respawned
+            UtilPacket.send(player, HologramPackets.teleport(line));
+            UtilPacket.send(player, HologramPackets.data(line, false));
         } catch (Exception e) {
             LOGGER.debug("Error updating hologram for player", e);
         }
     }
 
+    /**
+     * Sends only the line's name to the player, for a line whose text changed but which didn't move
+     */
+    public void updateNameForPlayer(ServerPlayer player) {
+        if (player == null || player.connection == null) {
+            return;
+        }
+
+        try {
+            UtilPacket.send(player, HologramPackets.data(this.getDescriptorFor(player), false));
+        } catch (Exception e) {
+            LOGGER.debug("Error updating hologram name for player", e);
+        }
+    }
+
+    /**
+     * Gets the descriptor with the name this player should see. Lines without placeholders share one descriptor,
+     * the others get a copy with the name rendered for the player, the line's own descriptor is never changed
+     */
+    private LineDescriptor getDescriptorFor(ServerPlayer player) {
+        LineDescriptor line = this.descriptor;
+
+        if (!Forge20Holograms.getInstance().arePlaceholdersEnabled() || this.text == null
+                || this.template == null || this.template.isStatic()) {
+            return line;
+        }
+
+        try {
+            return line.withName(UtilChatColour.parse(this.template.render(player)), line.nameVisible);
+        } catch (Exception e) {
+            // Fall back to regular text if placeholder processing fails
+            LOGGER.debug("Error processing placeholders, using fallback text", e);
+            return line.withName(UtilChatColour.parse(this.text.replace("%", "%%")), line.nameVisible);
+        }
+    }
+
     public void sendTeleportPacket(ServerPlayer player) {
         if (player != null && player.connection != null) {
             try {
-                player.connection.send(new ClientboundTeleportEntityPacket(this.armorStand));
+                UtilPacket.send(player, HologramPackets.teleport(this.descriptor));
             } catch (Exception e) {
                 LOGGER.debug("Error sending teleport packet", e);
             }
         }
     }
 
-    public void setWorld(Level world) {
-        try {
-            // In 1.20, we need to handle world changes differently 
-            // as the field name may have changed
-            if (this.armorStand.level() != world) {
-                double x = this.armorStand.getX();
-                double y = this.armorStand.getY();
-                double z = this.armorStand.getZ();
-                
-                // First detach from current world safely
-                if (this.armorStand.level() != null) {
-                    // Remove from existing world
-                    this.armorStand.stopRiding();
-                    this.armorStand.remove(ArmorStand.RemovalReason.DISCARDED);
-                }
-                
-                // Create a new armor stand in the new world
-                ArmorStand newStand = new ArmorStand(world, x, y, z);
-                
-                // Copy settings from old armor stand
-                newStand.setId(this.armorStand.getId());
-                newStand.setInvisible(true);
-                newStand.setNoGravity(true);
-                newStand.setSilent(true);
-                newStand.setCustomNameVisible(true);
-                newStand.setInvulnerable(true);
-                newStand.setCustomName(this.armorStand.getCustomName());
-                
-                // Replace the armor stand reference
-                this.armorStand = newStand;
-            }
-        } catch (Exception e) {
-            LOGGER.error("Failed to update hologram line world", e);
-        }
-    }
-
     public void setPosition(double x, double y, double z) {
-        this.armorStand.setPos(x, y, z);
+        this.descriptor = this.descriptor.withPosition(x, y, z);
     }
 
     public String getText() {
         return this.text;
     }
 
-    public ArmorStand getArmorStand() {
-        return this.armorStand;
+    public boolean hasPlaceholders() {
+        return this.template != null && !this.template.isStatic();
+    }
+
+    /**
+     * Gives the line's entity id back to the {@link EntityIdAllocator}, once the line has been despawned for
+     * every player and won't be shown again
+     */
+    public synchronized void release() {
+        if (!this.released) {
+            this.released = true;
+            EntityIdAllocator.release(this.descriptor.entityId);
+        }
+    }
+
+    public synchronized boolean isReleased() {
+        return this.released;
+    }
+
+    public LineDescriptor getDescriptor() {
+        return this.descriptor;
     }
 
     public int getEntityId() {
-        return this.armorStand.getId();
+        return this.descriptor.entityId;
     }
 
     public Vec3 getPosition() {
-        return this.armorStand.position();
+        LineDescriptor line = this.descriptor;
+        return new Vec3(line.x, line.y, line.z);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.strictgaming.elite.holograms.forge20.hologram.entity;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ *
+ * Builds the packets for a hologram line straight from its {@link LineDescriptor}, without an armor stand to
+ * read them from. Nothing here touches the world, so the packets can be built on any thread
+ *
+ */
+public class HologramPackets {
+
+    // Entity data ids, these belong to Entity so they're the same for every entity type
+    private static final int SHARED_FLAGS_DATA_ID = 0;
+    private static final int CUSTOM_NAME_DATA_ID = 2;
+    private static final int CUSTOM_NAME_VISIBLE_DATA_ID = 3;
+    private static final int SILENT_DATA_ID = 4;
+    private static final int NO_GRAVITY_DATA_ID = 5;
+    private static final byte INVISIBLE_FLAG = 0x20;
+
+    /**
+     * The data every line sends when it's spawned, it never changes so it's only built once. The armor stand's
+     * marker flag is left off, a marker has no height so the client would draw the name about two blocks lower
+     */
+    private static final List<SynchedEntityData.DataValue<?>> STATIC_DATA = ImmutableList.of(
+            new SynchedEntityData.DataValue<>(SHARED_FLAGS_DATA_ID, EntityDataSerializers.BYTE, INVISIBLE_FLAG),
+            new SynchedEntityData.DataValue<>(SILENT_DATA_ID, EntityDataSerializers.BOOLEAN, true),
+            new SynchedEntityData.DataValue<>(NO_GRAVITY_DATA_ID, EntityDataSerializers.BOOLEAN, true)
+    );
+
+    private HologramPackets() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Creates the packet that spawns the line's armor stand
+     *
+     * @param line The line
+     * @return The spawn packet
+     */
+    public static ClientboundAddEntityPacket spawn(LineDescriptor line) {
+        return new ClientboundAddEntityPacket(line.entityId, line.uuid, line.x, line.y, line.z, 0.0F, 0.0F,
+                EntityType.ARMOR_STAND, 0, Vec3.ZERO, 0.0D);
+    }
+
+    /**
+     * Creates the packet that sets the line's name
+     *
+     * @param line The line
+     * @param initial true to also send the data that makes the armor stand a hologram, for a line that was just spawned
+     * @return The entity data packet
+     */
+    public static ClientboundSetEntityDataPacket data(LineDescriptor line, boolean initial) {
+        List<SynchedEntityData.DataValue<?>> values = Lists.newArrayListWithCapacity(STATIC_DATA.size() + 2);
+
+        if (initial) {
+            values.addAll(STATIC_DATA);
+        }
+
+        values.add(new SynchedEntityData.DataValue<>(CUSTOM_NAME_DATA_ID, EntityDataSerializers.OPTIONAL_COMPONENT, Optional.of(line.name)));
+        values.add(new SynchedEntityData.DataValue<>(CUSTOM_NAME_VISIBLE_DATA_ID, EntityDataSerializers.BOOLEAN, line.nameVisible));
+        return new ClientboundSetEntityDataPacket(line.entityId, values);
+    }
+
+    /**
+     * Creates the packet that moves the line to its position. The packet only has an entity constructor, so it's
+     * read from the same bytes it would be sent as
+     *
+     * @param line The line
+     * @return The teleport packet
+     */
+    public static ClientboundTeleportEntityPacket teleport(LineDescriptor line) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+
+        try {
+            buf.writeVarInt(line.entityId);
+            buf.writeDouble(line.x);
+            buf.writeDouble(line.y);
+            buf.writeDouble(line.z);
+            buf.writeByte(0); // yaw
+            buf.writeByte(0); // pitch
+            buf.writeBoolean(false); // on ground
+            return new ClientboundTeleportEntityPacket(buf);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.strictgaming.elite.holograms.forge20.hologram.entity;
+
+import net.minecraft.network.chat.Component;
+
+import java.util.UUID;
+
+/**
+ *
+ * Everything the client needs to show a hologram line: the entity id and UUID it's known by, where it is and
+ * the name it shows. Descriptors never change, a line swaps its descriptor for a new one instead, so one can
+ * be handed to {@link HologramPackets} from any thread
+ *
+ */
+public final class LineDescriptor {
+
+    public final int entityId;
+    public final UUID uuid;
+    public final double x;
+    public final double y;
+    public final double z;
+    public final Component name;
+    public final boolean nameVisible;
+
+    public LineDescriptor(int entityId, UUID uuid, double x, double y, double z, Component name, boolean nameVisible) {
+        this.entityId = entityId;
+        this.uuid = uuid;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.name = name;
+        this.nameVisible = nameVisible;
+    }
+
+    public LineDescriptor withPosition(double x, double y, double z) {
+        return new LineDescriptor(this.entityId, this.uuid, x, y, z, this.name, this.nameVisible);
+    }
+
+    public LineDescriptor withName(Component name, boolean nameVisible) {
+        return new LineDescriptor(this.entityId, this.uuid, this.x, this.y, this.z, name, nameVisible);
+    }
+}
@@ -7,10 +7,8 @@ import com.strictgaming.elite.holograms.forge20.hologram.ForgeHologramBuilder;
 import com.strictgaming.elite.holograms.forge20.hologram.HologramManager;
 import com.strictgaming.elite.holograms.forge20.util.UtilWorld;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.Vec3;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * The Forge implementation of the {@link HologramFactory}
@@ -34,21 +32,6 @@ public class ForgeHologramFactory implements HologramFactory {
             return List.of();
         }
         
-        Vec3 position = new Vec3(x, y, z);
-        
-        return HologramManager.getAllHolograms().stream()
-                .filter(hologram -> {
-                    if (hologram.getWorldName() == null || !hologram.getWorldName().equals(world.dimension().location().toString())) {
-                        return false;
-                    }
-
-                    double[] hologramPos = hologram.getLocation();
-                    double dx = x - hologramPos[0];
-                    double dy = y - hologramPos[1];
-                    double dz = z - hologramPos[2];
-
-                    return dx * dx + dy * dy + dz * dz <= radius * radius;
-                })
-                .collect(Collectors.toList());
+        return HologramManager.getNearby(world, x, y, z, radius);
     }
 } 
\ No newline at end of file
@@ -43,9 +43,9 @@ public class ForgeHologramManager implements PlatformHologramManager {
             
             // Instead of async save, use direct synchronous save
             if (holograms != null && !holograms.isEmpty()) {
-                // Use the saver directly
+                // Save directly, skipping the save queue
                 LOGGER.info("Saving " + holograms.size() + " holograms before reload");
-                HologramManager.getSaver().save(java.util.Arrays.asList(holograms.toArray(new Hologram[0])));
+                HologramManager.saveSync();
             }
             
             // Now proceed with normal reload
@@ -1,5 +1,6 @@
 package com.strictgaming.elite.holograms.forge20.util;
 
+import com.google.common.collect.ImmutableSet;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.GameType;
 import net.minecraftforge.server.ServerLifecycleHooks;
@@ -9,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 import java.text.DecimalFormat;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 
 /**
  *
@@ -20,18 +22,50 @@ public class UtilPlaceholder {
     private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#");
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final Set<String> SERVER_PLACEHOLDERS = ImmutableSet.of(
+            "%players%", "%maxplayers%", "%tps%", "%uptime%", "%memory%", "%server_time%"
+    );
+
+    private static final Set<String> PLAYER_PLACEHOLDERS = ImmutableSet.of(
+            "%player%", "%player_health%", "%player_level%", "%player_world%",
+            "%player_coords%", "%player_gamemode%", "%player_rank%"
+    );
     
     // Track server start time for uptime calculation
     private static long serverStartTime = System.currentTimeMillis();
+
+    // Server placeholders are the same for every viewer, so they're computed once and shared until they go stale
+    private static volatile long currentTick = 0;
+    private static volatile int serverRefreshTicks = 1;
+    private static volatile ServerSnapshot serverSnapshot = null;
     
     /**
      * Set the server start time (called when server starts)
      */
     public static void setServerStartTime() {
         serverStartTime = System.currentTimeMillis();
+        serverSnapshot = null;
         LOGGER.debug("Server start time set for uptime tracking");
     }
 
+    /**
+     * Advance the placeholder clock, called once at the end of every server tick
+     */
+    public static void tick() {
+        currentTick++;
+    }
+
+    /**
+     * Set how many ticks the server placeholder values are reused for before being recomputed
+     *
+     * @param ticks The number of ticks, at least 1
+     */
+    public static void setServerRefreshInterval(int ticks) {
+        serverRefreshTicks = Math.max(1, ticks);
+        serverSnapshot = null;
+    }
+
     /**
      * Replace placeholders in a string
      *
@@ -43,128 +77,86 @@ public class UtilPlaceholder {
         if (text == null) {
             return "";
         }
-        
-        String result = text;
-        
+
         try {
-            // Server placeholders (available to all players)
-            result = replaceServerPlaceholders(result);
-            
-            // Player-specific placeholders (only if player is provided)
-            if (player != null) {
-                result = replacePlayerPlaceholders(player, result);
-            }
-            
+            return PlaceholderTemplate.compile(text).render(player);
         } catch (Exception e) {
             LOGGER.error("Error replacing placeholders in text: " + text, e);
             // Return original text if placeholder replacement fails
             return text;
         }
-        
-        return result;
     }
-    
+
     /**
-     * Replace server-wide placeholders
+     * Check if the text is a placeholder this mod knows how to replace
      */
-    private static String replaceServerPlaceholders(String text) {
-        try {
-            // Player count placeholders
-            if (text.contains("%players%")) {
-                int playerCount = getOnlinePlayerCount();
-                text = text.replace("%players%", String.valueOf(playerCount));
-            }
-            
-            if (text.contains("%maxplayers%")) {
-                int maxPlayers = getMaxPlayerCount();
-                text = text.replace("%maxplayers%", String.valueOf(maxPlayers));
-            }
-            
-            // Server performance placeholders
-            if (text.contains("%tps%")) {
-                String tps = getServerTPS();
-                text = text.replace("%tps%", tps);
-            }
-            
-            // Server uptime
-            if (text.contains("%uptime%")) {
-                String uptime = getServerUptime();
-                text = text.replace("%uptime%", uptime);
-            }
-            
-            // Memory usage
-            if (text.contains("%memory%")) {
-                String memory = getMemoryUsage();
-                text = text.replace("%memory%", memory);
-            }
-            
-            // Server time
-            if (text.contains("%server_time%")) {
-                String time = getCurrentTime();
-                text = text.replace("%server_time%", time);
-            }
-            
-        } catch (Exception e) {
-            LOGGER.error("Error replacing server placeholders", e);
-        }
-        
-        return text;
+    static boolean isPlaceholder(String placeholder) {
+        return SERVER_PLACEHOLDERS.contains(placeholder) || PLAYER_PLACEHOLDERS.contains(placeholder);
     }
-    
+
+    /**
+     * Check if the placeholder depends on the player viewing the hologram
+     */
+    static boolean isPlayerPlaceholder(String placeholder) {
+        return PLAYER_PLACEHOLDERS.contains(placeholder);
+    }
+
     /**
-     * Replace player-specific placeholders
+     * Resolve a single placeholder
+     *
+     * @return The value, or null if it can't be resolved (player placeholder without a player)
      */
-    private static String replacePlayerPlaceholders(ServerPlayer player, String text) {
+    static String resolve(String placeholder, ServerPlayer player) {
+        // Server placeholders (available to all players)
+        if (SERVER_PLACEHOLDERS.contains(placeholder)) {
+            return getServerSnapshot().get(placeholder);
+        }
+
+        // Player-specific placeholders (only if player is provided)
+        if (player == null) {
+            return null;
+        }
+
         try {
-            // Player name
-            if (text.contains("%player%")) {
-                String playerName = player.getName().getString();
-                text = text.replace("%player%", playerName);
-            }
-            
-            // Player health
-            if (text.contains("%player_health%")) {
-                String health = getPlayerHealth(player);
-                text = text.replace("%player_health%", health);
-            }
-            
-            // Player level
-            if (text.contains("%player_level%")) {
-                int level = player.experienceLevel;
-                text = text.replace("%player_level%", String.valueOf(level));
-            }
-            
-            // Player world
-            if (text.contains("%player_world%")) {
-                String world = getPlayerWorld(player);
-                text = text.replace("%player_world%", world);
-            }
-            
-            // Player coordinates
-            if (text.contains("%player_coords%")) {
-                String coords = getPlayerCoordinates(player);
-                text = text.replace("%player_coords%", coords);
-            }
-            
-            // Player gamemode
-            if (text.contains("%player_gamemode%")) {
-                String gamemode = getPlayerGamemode(player);
-                text = text.replace("%player_gamemode%", gamemode);
-            }
-            
-            // Player rank
-            if (text.contains("%player_rank%")) {
-                String rank = UtilPermissions.getPlayerRank(player);
-                text = text.replace("%player_rank%", rank);
+            switch (placeholder) {
+                case "%player%":
+                    return player.getName().getString();
+                case "%player_health%":
+                    return getPlayerHealth(player);
+                case "%player_level%":
+                    return String.valueOf(player.experienceLevel);
+                case "%player_world%":
+                    return getPlayerWorld(player);
+                case "%player_coords%":
+                    return getPlayerCoordinates(player);
+                case "%player_gamemode%":
+                    return getPlayerGamemode(player);
+                case "%player_rank%":
+                    return UtilPermissions.getPlayerRank(player);
+                default:
+                    return null;
             }
-            
         } catch (Exception e) {
             LOGGER.error("Error replacing player placeholders for player: " + player.getName().getString(), e);
+            return null;
         }
-        
-        return text;
     }
     
+    /**
+     * Get the server placeholder values for this tick, computing them if they're missing or stale
+     */
+    private static ServerSnapshot getServerSnapshot() {
+        ServerSnapshot snapshot = serverSnapshot;
+        long tick = currentTick;
+
+        if (snapshot == null || tick - snapshot.tick >= serverRefreshTicks) {
+            snapshot = new ServerSnapshot(tick);
+            serverSnapshot = snapshot;
+        }
+
+        return snapshot;
+    }
+
     /**
      * Get current online player count
      */
@@ -339,4 +331,47 @@ public class UtilPlaceholder {
             return "Unknown";
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Read-only values of every server placeholder at a given tick
+     */
+    private static final class ServerSnapshot {
+
+        private final long tick;
+        private final String players;
+        private final String maxPlayers;
+        private final String tps;
+        private final String uptime;
+        private final String memory;
+        private final String time;
+
+        private ServerSnapshot(long tick) {
+            this.tick = tick;
+            this.players = String.valueOf(getOnlinePlayerCount());
+            this.maxPlayers = String.valueOf(getMaxPlayerCount());
+            this.tps = getServerTPS();
+            this.uptime = getServerUptime();
+            this.memory = getMemoryUsage();
+            this.time = getCurrentTime();
+        }
+
+        private String get(String placeholder) {
+            switch (placeholder) {
+                case "%players%":
+                    return this.players;
+                case "%maxplayers%":
+                    return this.maxPlayers;
+                case "%tps%":
+                    return this.tps;
+                case "%uptime%":
+                    return this.uptime;
+                case "%memory%":
+                    return this.memory;
+                case "%server_time%":
+                    return this.time;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -25,9 +25,16 @@ import com.strictgaming.elite.holograms.neo21.command.HologramsInsertLineCommand
 import com.strictgaming.elite.holograms.neo21.command.HologramsCreateScoreboardCommand;
 import com.strictgaming.elite.holograms.neo21.command.HologramsMoveVerticalCommand;
 import com.strictgaming.elite.holograms.neo21.config.HologramsConfig;
+import com.strictgaming.elite.holograms.neo21.config.SettingsConfig;
 import com.strictgaming.elite.holograms.neo21.hologram.HologramManager;
+import com.strictgaming.elite.holograms.neo21.hologram.HologramSaveQueue;
+import com.strictgaming.elite.holograms.neo21.hologram.HologramScheduler;
+import com.strictgaming.elite.holograms.neo21.hologram.ScoreboardSnapshots;
 import com.strictgaming.elite.holograms.neo21.hologram.manager.NeoForgeHologramFactory;
 import com.strictgaming.elite.holograms.neo21.hologram.manager.NeoForgeHologramManager;
+import com.strictgaming.elite.holograms.neo21.util.UtilChatColour;
+import com.strictgaming.elite.holograms.neo21.util.UtilPacket;
+import com.strictgaming.elite.holograms.neo21.util.UtilPlaceholder;
 import com.strictgaming.elite.holograms.api.hologram.Hologram;
 
 import org.slf4j.Logger;
@@ -63,6 +70,7 @@ public class Neo21Holograms implements PlatformHologramManager {
 
     private CommandFactory commandFactory = new CommandFactory();
     private HologramsConfig config;
+    private SettingsConfig settings = new SettingsConfig();
     private boolean placeholders;
     private NeoForgeHologramFactory hologramFactory;
     private NeoForgeHologramManager hologramManager;
@@ -152,12 +160,24 @@ public class Neo21Holograms implements PlatformHologramManager {
         LOGGER.info("Server starting - initializing hologram manager");
         
         try {
+            // The holograms themselves are loaded once the server has started, see onServerStarted
             this.config = new HologramsConfig();
-            this.config.load();
             LOGGER.info("Config loaded successfully");
         } catch (IOException e) {
             LOGGER.error("Error loading config", e);
         }
+
+        try {
+            this.settings.load();
+        } catch (IOException e) {
+            LOGGER.error("Error loading settings", e);
+        }
+        HologramManager.getVisibilityTracker().setMoveThreshold(this.settings.getVisibilityMoveThreshold());
+        UtilPlaceholder.setServerRefreshInterval(this.settings.getPlaceholderRefreshTicks());
+        UtilChatColour.setCacheSize(this.settings.getComponentCacheSize());
+        HologramSaveQueue.setWindow(this.settings.getSaveWindowMillis());
+        ScoreboardSnapshots.setEventDriven(this.settings.isScoreboardEventDriven());
+        HologramScheduler.setBudget(this.settings.getTickBudgetNanos());
         
         HologramManager.preInit();
     }
@@ -253,11 +273,11 @@ public class Neo21Holograms implements PlatformHologramManager {
     @SubscribeEvent
     public void onServerStarted(ServerStartedEvent event) {
         LOGGER.info("Server started - loading holograms");
-        com.strictgaming.elite.holograms.neo21.util.UtilPlaceholder.setServerStartTime();
+        UtilPlaceholder.setServerStartTime();
         this.checkForPlaceholders();
         try {
-            HologramManager.load();
-            LOGGER.info("Holograms loaded successfully");
+            HologramManager.loadStaged();
+            LOGGER.info("Hologram loading started");
         } catch (Exception e) {
             LOGGER.error("Error loading holograms", e);
         }
@@ -336,17 +356,30 @@ public class Neo21Holograms implements PlatformHologramManager {
         }
     }
     
+    @SubscribeEvent
+    public void onPlayerChangeDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            HologramManager.handlePlayerDimensionChange(player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            HologramManager.handlePlayerDimensionChange(player);
+        }
+    }
+    
     @SubscribeEvent
     public void onServerTick(ServerTickEvent.Post event) {
-        // Tick animations every tick
+        // Animations, placeholders, scoreboards and visibility, within the tick budget
         HologramManager.tick();
 
-        // Check player movement every 20 ticks (1 second) to avoid performance issues
-        if (event.getServer().getTickCount() % 20 == 0) {
-            for (ServerPlayer player : event.getServer().getPlayerList().getPlayers()) {
-                HologramManager.handlePlayerMove(player);
-            }
-        }
+        // Send everything the holograms queued this tick as one bundle per player
+        UtilPacket.flush();
+
+        // Let the server placeholder values go stale for the next tick
+        UtilPlaceholder.tick();
     }
 
     public static Neo21Holograms getInstance() {
@@ -357,6 +390,10 @@ public class Neo21Holograms implements PlatformHologramManager {
         return this.config;
     }
 
+    public SettingsConfig getSettings() {
+        return this.settings;
+    }
+
     @Override
     public boolean arePlaceholdersEnabled() {
         return this.placeholders;
@@ -4,7 +4,9 @@ import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import com.strictgaming.elite.holograms.neo21.Neo21Holograms;
 import com.strictgaming.elite.holograms.neo21.config.HologramsConfig;
 import com.strictgaming.elite.holograms.neo21.config.ScoreboardHologramConfig;
+import com.strictgaming.elite.holograms.neo21.hologram.entity.EntityIdAllocator;
 import com.strictgaming.elite.holograms.neo21.hologram.implementation.NeoForgeHologram;
+import com.strictgaming.elite.holograms.neo21.util.UtilPacket;
 
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
@@ -12,14 +14,19 @@ import com.mojang.logging.LogUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.UUID;
 
 import net.minecraft.world.level.Level;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
 /**
  * Manager for handling hologram operations
@@ -33,6 +40,9 @@ public class HologramManager {
     private static long lastScoreboardSave = 0L;
     private static final long SCOREBOARD_SAVE_COOLDOWN_MS = 5000L;
     private static final Object SAVE_LOAD_LOCK = new Object();
+    private static volatile boolean loading = false;
+    private static final VisibilityTracker VISIBILITY = new VisibilityTracker(4.0);
+    private static volatile HologramLoader activeLoad = null;
     
     public static void preInit() {
         LOGGER.info("Pre-initializing hologram manager");
@@ -52,37 +62,150 @@ public class HologramManager {
         }
     }
     
+    /**
+     * Loads every hologram before returning, used by reloads that report the result straight away
+     */
     public static void load() throws IOException {
+        HologramLoader loader = beginLoad();
+
+        if (loader != null) {
+            loader.finish(ServerLifecycleHooks.getCurrentServer());
+            finishLoad(loader);
+        }
+    }
+
+    /**
+     * Starts loading the holograms in the background. They're created a few at a time on the following ticks,
+     * see {@link HologramLoader}
+     */
+    public static void loadStaged() throws IOException {
+        beginLoad();
+    }
+
+    private static HologramLoader beginLoad() {
         synchronized (SAVE_LOAD_LOCK) {
             LOGGER.info("Loading holograms from config");
             HologramsConfig config = Neo21Holograms.getInstance().getConfig();
 
             if (config == null) {
                 LOGGER.warn("Config is null, cannot load holograms.");
-                return;
+                return null;
+            }
+
+            if (activeLoad != null) {
+                activeLoad.cancel();
             }
 
-            HOLOGRAMS.values().forEach(Hologram::despawn);
+            for (Hologram hologram : HOLOGRAMS.values()) {
+                hologram.despawn();
+                if (hologram instanceof NeoForgeHologram nfHologram) {
+                    nfHologram.releaseEntityIds();
+                }
+            }
             HOLOGRAMS.clear();
+            ScoreboardSnapshots.clear();
+            HologramScheduler.clear();
 
-            config.loadHologramsIntoManager();
+            activeLoad = new HologramLoader(config, Neo21Holograms.getInstance().getSettings().getLoadSpawnBudget());
+            activeLoad.start();
+            return activeLoad;
+        }
+    }
 
-            // Spawn all loaded holograms now that they're registered
-            LOGGER.info("Spawning {} loaded holograms", HOLOGRAMS.size());
-            for (Hologram h : HOLOGRAMS.values()) {
-                if (!h.isSpawned()) {
-                    h.spawn();
-                }
+    /**
+     * Creates and spawns a hologram read by the {@link HologramLoader}. Called on the server thread
+     *
+     * @param entry The hologram as it was read from the config
+     */
+    static void createLoaded(HologramsConfig.HologramEntry entry) {
+        Hologram hologram;
+
+        synchronized (SAVE_LOAD_LOCK) {
+            if (HOLOGRAMS.containsKey(entry.id)) {
+                LOGGER.warn("Hologram {} was created while holograms were loading, keeping the new one", entry.id);
+                return;
             }
 
-            loadScoreboardHolograms();
+            loading = true;
+            try {
+                hologram = entry.create();
+            } finally {
+                loading = false;
+            }
+        }
+
+        if (!hologram.isSpawned()) {
+            hologram.spawn();
+        }
+    }
+
+    private static void finishLoad(HologramLoader loader) {
+        synchronized (SAVE_LOAD_LOCK) {
+            if (activeLoad != loader) {
+                return;
+            }
+
+            activeLoad = null;
+            loading = true;
+            try {
+                loadScoreboardHolograms();
+            } finally {
+                loading = false;
+            }
+
+            LOGGER.info("Hologram footprint after loading: {}", getFootprint());
+            LOGGER.debug("Scoreboard objectives: {}", ScoreboardSnapshots.describe());
+        }
+    }
+
+    /**
+     * Describes how many holograms and hologram lines exist and how many entity ids they hold, lines don't hold any
+     * entities
+     */
+    public static String getFootprint() {
+        int lines = 0;
+        for (Hologram hologram : HOLOGRAMS.values()) {
+            if (hologram instanceof NeoForgeHologram nfHologram) {
+                lines += nfHologram.getLineCount();
+            }
+        }
+        return HOLOGRAMS.size() + " holograms, " + lines + " lines, entity ids " + EntityIdAllocator.describe();
+    }
+
+    /**
+     * Gets the holograms a staged load hasn't created yet, they still have to be written by full saves. Never waits
+     * for the load, so it can be called while holding the save lock
+     *
+     * @return The holograms, or null if the load is still reading the config
+     */
+    private static Collection<HologramsConfig.HologramEntry> getPendingLoad() {
+        HologramLoader loader = activeLoad;
+        return loader == null ? Collections.emptyList() : loader.getPending();
+    }
+
+    /**
+     * Waits for the active load to finish reading the config, without holding the save lock, so a full save
+     * afterwards knows which holograms are still waiting to be created
+     */
+    private static void awaitPendingLoad() {
+        HologramLoader loader = activeLoad;
+        if (loader != null) {
+            loader.awaitRead();
         }
     }
     
     public static void addHologram(Hologram hologram) {
         if (hologram == null) return;
+        boolean created;
         synchronized (SAVE_LOAD_LOCK) {
             HOLOGRAMS.put(hologram.getId(), hologram);
+            created = !loading;
+        }
+        VISIBILITY.invalidateAll();
+
+        // Holograms read from the config are already on disk, only new ones need writing
+        if (created) {
+            save(hologram.getId());
         }
     }
     
@@ -93,13 +216,19 @@ public class HologramManager {
     public static boolean removeHologram(String id) {
         synchronized (SAVE_LOAD_LOCK) {
             Hologram hologram = HOLOGRAMS.remove(id);
+            HologramLoader loader = activeLoad;
+            boolean pending = loader != null && loader.remove(id);
             if (hologram != null) {
                 hologram.despawn();
-                try {
-                    save();
-                } catch (IOException e) {
-                    LOGGER.error("Failed to save after removing hologram", e);
+                if (hologram instanceof NeoForgeHologram nfHologram) {
+                    nfHologram.releaseEntityIds();
                 }
+                if (hologram instanceof com.strictgaming.elite.holograms.neo21.hologram.ScoreboardHologram sb) {
+                    ScoreboardSnapshots.unsubscribe(sb.getObjectiveName(), sb.getId());
+                }
+            }
+            if (hologram != null || pending) {
+                save(id);
                 return true;
             }
             return false;
@@ -115,44 +244,106 @@ public class HologramManager {
     }
     
     public static void saveSync() {
-        synchronized (SAVE_LOAD_LOCK) {
-            try {
-                HologramsConfig config = Neo21Holograms.getInstance().getConfig();
-                if (config != null) {
-                    config.saveHologramsFromManager(HOLOGRAMS);
-                    LOGGER.info("Saved {} holograms to config (sync).", HOLOGRAMS.size());
-                    forceSaveScoreboardHolograms();
+        while (true) {
+            awaitPendingLoad();
+
+            synchronized (SAVE_LOAD_LOCK) {
+                Collection<HologramsConfig.HologramEntry> pending = getPendingLoad();
+                if (pending == null) {
+                    // A reload started reading the config again since, wait for that one
+                    continue;
                 }
-            } catch (Exception e) {
-                LOGGER.error("Failed to save holograms (sync)", e);
+
+                // This writes everything, so whatever the save queue still holds is covered
+                HologramSaveQueue.discard();
+
+                try {
+                    HologramsConfig config = Neo21Holograms.getInstance().getConfig();
+                    if (config != null) {
+                        config.saveHologramsFromManager(HOLOGRAMS, pending);
+                        LOGGER.info("Saved {} holograms to config (sync).", HOLOGRAMS.size());
+                        forceSaveScoreboardHolograms();
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("Failed to save holograms (sync)", e);
+                }
+                return;
             }
         }
     }
     
+    /**
+     * Queues a save of every hologram. Saves are written behind on the save queue's thread, so calling this
+     * repeatedly within the save window only writes the file once
+     */
     public static void save() throws IOException {
-        // Ensure save runs async to avoid blocking server thread
-        CompletableFuture.runAsync(() -> {
+        HologramSaveQueue.markAllDirty();
+    }
+
+    /**
+     * Queues a save of a single hologram that was changed, created or removed
+     *
+     * @param id The hologram's id
+     */
+    public static void save(String id) {
+        // Holograms being created from the config are already on disk
+        if (loading) {
+            return;
+        }
+
+        HologramSaveQueue.markDirty(id);
+    }
+
+    /**
+     * Writes the holograms collected by the save queue. Called from the save queue's thread
+     *
+     * @param dirty The ids of the holograms that changed, or null to rewrite all of them
+     * @return true if the holograms were written
+     */
+    static boolean writePending(Set<String> dirty) {
+        while (true) {
+            // A full save has to include the holograms a load hasn't created yet, so it waits for the load to
+            // read them first. Only this thread waits, the save lock isn't held meanwhile
+            if (dirty == null) {
+                awaitPendingLoad();
+            }
+
             synchronized (SAVE_LOAD_LOCK) {
+                Collection<HologramsConfig.HologramEntry> pending = getPendingLoad();
+                if (dirty == null && pending == null) {
+                    // A reload started reading the config again since, wait for that one
+                    continue;
+                }
+
                 try {
                     HologramsConfig config = Neo21Holograms.getInstance().getConfig();
-                    if (config != null) {
-                        config.saveHologramsFromManager(HOLOGRAMS);
-                        LOGGER.info("Saved {} holograms to config.", HOLOGRAMS.size());
+                    if (config == null) {
+                        LOGGER.warn("Config is null, cannot save holograms.");
+                        return false;
+                    }
 
-                        forceSaveScoreboardHolograms();
+                    if (dirty == null) {
+                        config.saveHologramsFromManager(HOLOGRAMS, pending);
+                        LOGGER.info("Saved {} holograms to config.", HOLOGRAMS.size());
                     } else {
-                        LOGGER.warn("Config is null, cannot save holograms.");
+                        config.saveDirtyHolograms(HOLOGRAMS, dirty, pending);
+                        LOGGER.debug("Saved {} changed holograms to config.", dirty.size());
                     }
+
+                    forceSaveScoreboardHolograms();
+                    return true;
                 } catch (Exception e) {
                     LOGGER.error("Failed to save holograms", e);
+                    return false;
                 }
             }
-        });
+        }
     }
     
     public static void handlePlayerJoin(ServerPlayer player) {
         if (player == null) return;
         LOGGER.debug("Player {} joined, checking nearby holograms.", player.getName().getString());
+        PlayerSessionIndex.assign(player);
         HOLOGRAMS.values().forEach(hologram -> {
             if (hologram instanceof NeoForgeHologram nfHologram && nfHologram.isSpawned() && nfHologram.isPlayerNearby(player)) {
                 nfHologram.spawnForPlayer(player);
@@ -163,13 +354,44 @@ public class HologramManager {
     public static void handlePlayerLeave(ServerPlayer player) {
         if (player == null) return;
         LOGGER.debug("Player {} left, despawning their holograms.", player.getName().getString());
+        VISIBILITY.invalidate(player.getUUID());
         HOLOGRAMS.values().forEach(hologram -> {
             if (hologram instanceof NeoForgeHologram nfHologram && nfHologram.isVisibleTo(player)) {
                 nfHologram.despawnForPlayer(player);
             }
         });
+        // Only free the index once the player is out of every viewer set, it goes to the next player that joins
+        PlayerSessionIndex.release(player.getUUID());
+        UtilPacket.clear(player.getUUID());
     }
     
+    /**
+     * Called when a player changes dimension or respawns so their visibility is recalculated immediately. Otherwise
+     * {@link #tick()} only re-evaluates players that moved, within the tick budget
+     */
+    public static void handlePlayerDimensionChange(ServerPlayer player) {
+        if (player == null) return;
+        VISIBILITY.invalidate(player.getUUID());
+        // Respawning creates a new player object, point the player's index at it
+        PlayerSessionIndex.assign(player);
+        // Also records where the player was evaluated, so the next tick doesn't evaluate them again
+        if (VISIBILITY.shouldEvaluate(player)) {
+            handlePlayerMove(player);
+        }
+    }
+
+    /**
+     * Forces every player's visibility to be re-evaluated on their next tick,
+     * used when holograms are created or moved
+     */
+    public static void invalidateVisibility() {
+        VISIBILITY.invalidateAll();
+    }
+
+    public static VisibilityTracker getVisibilityTracker() {
+        return VISIBILITY;
+    }
+
     public static void handlePlayerMove(ServerPlayer player) {
         if (player == null) return;
         HOLOGRAMS.values().forEach(hologram -> {
@@ -188,21 +410,60 @@ public class HologramManager {
     }
 
     /**
-     * Called every server tick to update animations and scoreboards
+     * Called every server tick to update animations, placeholders, scoreboards and visibility. The work is handed to the
+     * {@link HologramScheduler}, whatever doesn't fit in this tick's budget runs first next tick
      */
     public static void tick() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return;
+
+        HologramLoader loader = activeLoad;
+        if (loader != null && loader.tick(server)) {
+            finishLoad(loader);
+        }
+
+        // Scan the scoreboard objectives that are due first, so their holograms show the new scores this tick
+        HologramScheduler.schedule(HologramScheduler.Category.SCOREBOARD, ScoreboardSnapshots.class, 0.0,
+                () -> ScoreboardSnapshots.tick(server));
+
+        // Visibility is only re-evaluated for players that actually moved since their last check
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            if (VISIBILITY.shouldEvaluate(player)) {
+                UUID uuid = player.getUUID();
+                // Looked up again when the task runs, it may be pushed to a later tick after the player left
+                HologramScheduler.schedule(HologramScheduler.Category.VISIBILITY, uuid, 0.0,
+                        () -> handlePlayerMove(server.getPlayerList().getPlayer(uuid)));
+            }
+        }
+
+        // Only the animated lines due for a new frame this tick are touched
+        AnimationWheel.tick();
+
         try {
             for (Hologram h : HOLOGRAMS.values()) {
-                if (h instanceof NeoForgeHologram) {
-                    ((NeoForgeHologram) h).tick();
+                if (!(h instanceof NeoForgeHologram nfHologram)) {
+                    continue;
                 }
-                if (h instanceof com.strictgaming.elite.holograms.neo21.hologram.ScoreboardHologram sb) {
-                    sb.tick();
+                boolean placeholders = nfHologram.tickPlaceholders();
+                boolean scoreboard = h instanceof ScoreboardHologram board && board.isOutdated();
+                if (!placeholders && !scoreboard) {
+                    continue;
+                }
+                double priority = nfHologram.getNearestViewerDistance();
+                if (placeholders) {
+                    HologramScheduler.schedule(HologramScheduler.Category.PLACEHOLDER, nfHologram, priority,
+                            nfHologram::refreshPlaceholders);
+                }
+                if (scoreboard) {
+                    ScoreboardHologram board = (ScoreboardHologram) nfHologram;
+                    HologramScheduler.schedule(HologramScheduler.Category.SCOREBOARD, board, priority, board::tick);
                 }
             }
         } catch (Exception e) {
             LOGGER.error("Error ticking holograms", e);
         }
+
+        HologramScheduler.run();
     }
     
     private static void saveScoreboardHolograms() {
@@ -280,7 +541,6 @@ public class HologramManager {
                             data.emptyFormat
                     );
                     holo.spawn();
-                    holo.forceUpdate();
                     addHologram(holo);
                     LOGGER.info("Recreated scoreboard hologram '{}' for objective '{}'", data.id, data.objectiveName);
                 } catch (Exception e) {
@@ -1,6 +1,8 @@
 package com.strictgaming.elite.holograms.neo21.hologram;
 
+import com.strictgaming.elite.holograms.neo21.hologram.entity.EntityIdAllocator;
 import com.strictgaming.elite.holograms.neo21.hologram.implementation.NeoForgeHologram;
+import com.strictgaming.elite.holograms.neo21.util.UtilPacket;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
@@ -21,23 +23,23 @@ import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.UUID;
 
 public class ItemHologram extends NeoForgeHologram {
     
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final double ITEM_TEXT_GAP = 0.8; 
-    private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger(-2000000000);
     
     private final String itemId;
+    // Kept while the item stand comes and goes with its viewers, so a player walking in and out doesn't use up ids
+    private final int itemEntityId = EntityIdAllocator.allocate();
+    private boolean released = false;
     private ArmorStand itemStand;
     private ItemStack itemStack;
     
-    public ItemHologram(String id, String world, double x, double y, double z, String itemId, List<String> lines) {
+    public ItemHologram(String id, String world, double x, double y, double z, String itemId, List<?> lines) {
         super(id, world, x, y, z, lines);
         this.itemId = itemId;
-        // Don't init yet - constructor is called during load, before server level is available
+        // Don't init yet - the item stand is created when the first player is shown the hologram
         LOGGER.debug("ItemHologram {} created, will initialize item stand on spawn.", id);
     }
     
@@ -52,7 +54,7 @@ public class ItemHologram extends NeoForgeHologram {
         
         // Create the item display armor stand ABOVE the text lines
         this.itemStand = new ArmorStand(level, getX(), getY() + ITEM_TEXT_GAP, getZ());
-        this.itemStand.setId(NEXT_ENTITY_ID.getAndIncrement());
+        this.itemStand.setId(this.itemEntityId);
         
         this.itemStand.setInvisible(true);
         this.itemStand.setNoGravity(true);
@@ -78,15 +80,6 @@ public class ItemHologram extends NeoForgeHologram {
         return new ItemStack(Items.DIRT);
     }
     
-    @Override
-    public void spawn() {
-        super.spawn();
-        // Ensure item is initialized when spawning
-        if (itemStand == null) {
-            initItemStand();
-        }
-    }
-    
     @Override
     public void spawnForPlayer(ServerPlayer player) {
         super.spawnForPlayer(player);
@@ -97,6 +90,11 @@ public class ItemHologram extends NeoForgeHologram {
     public void despawnForPlayer(ServerPlayer player) {
         despawnItemFor(player);
         super.despawnForPlayer(player);
+
+        // Same as the text lines, the item stand only exists while someone can see it
+        if (getViewers().isEmpty()) {
+            itemStand = null;
+        }
     }
     
     private void spawnItemFor(ServerPlayer player) {
@@ -120,18 +118,18 @@ public class ItemHologram extends NeoForgeHologram {
             Vec3.ZERO, 
             this.itemStand.getYHeadRot() 
         );
-        player.connection.send(addPacket);
+        UtilPacket.send(player, addPacket);
         
         try {
             List<com.mojang.datafixers.util.Pair<EquipmentSlot, ItemStack>> equipment = 
                 List.of(com.mojang.datafixers.util.Pair.of(EquipmentSlot.HEAD, itemStack));
-            player.connection.send(new ClientboundSetEquipmentPacket(this.itemStand.getId(), equipment));
+            UtilPacket.send(player, new ClientboundSetEquipmentPacket(this.itemStand.getId(), equipment));
         } catch (Exception e) {
             e.printStackTrace();
         }
         
         try {
-            player.connection.send(new ClientboundSetEntityDataPacket(
+            UtilPacket.send(player, new ClientboundSetEntityDataPacket(
                 this.itemStand.getId(), 
                 this.itemStand.getEntityData().getNonDefaultValues()));
         } catch (Exception e) {
@@ -141,27 +139,20 @@ public class ItemHologram extends NeoForgeHologram {
     
     private void despawnItemFor(ServerPlayer player) {
         if (player == null || player.connection == null || itemStand == null) return;
-        player.connection.send(new ClientboundRemoveEntitiesPacket(this.itemStand.getId()));
+        UtilPacket.send(player, new ClientboundRemoveEntitiesPacket(this.itemStand.getId()));
     }
     
     @Override
     public void setPosition(String world, double x, double y, double z) {
         super.setPosition(world, x, y, z);
-        
-        if (itemStand == null) {
-            initItemStand();
-        }
 
+        // Without an item stand nobody is looking, the next one created starts at the new position
         if (itemStand != null) {
             itemStand.setPos(x, y + ITEM_TEXT_GAP, z);
             
             if (isSpawned()) {
-                 for (UUID uuid : getNearbyPlayersView()) {
-                     if (ServerLifecycleHooks.getCurrentServer() == null) continue;
-                     ServerPlayer p = ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayer(uuid);
-                     if (p != null) {
-                         p.connection.send(new ClientboundTeleportEntityPacket(this.itemStand));
-                     }
+                 for (ServerPlayer p : getViewers()) {
+                     UtilPacket.send(p, new ClientboundTeleportEntityPacket(this.itemStand));
                  }
             }
         }
@@ -170,6 +161,15 @@ public class ItemHologram extends NeoForgeHologram {
     public String getItemId() {
         return itemId;
     }
+
+    @Override
+    public synchronized void releaseEntityIds() {
+        super.releaseEntityIds();
+        if (!released) {
+            released = true;
+            EntityIdAllocator.release(itemEntityId);
+        }
+    }
     
     private ServerLevel getServerLevel() {
         if (ServerLifecycleHooks.getCurrentServer() == null) return null;
@@ -186,16 +186,12 @@ public class ItemHologram extends NeoForgeHologram {
     @Override
     public void update() {
         super.update();
-        if (itemStand == null && isSpawned()) {
+        if (itemStand == null && isSpawned() && !getViewers().isEmpty()) {
             initItemStand();
             // If it initialized successfully, spawn for nearby players
             if (itemStand != null) {
-                 for (UUID uuid : getNearbyPlayersView()) {
-                     if (ServerLifecycleHooks.getCurrentServer() == null) continue;
-                     ServerPlayer p = ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayer(uuid);
-                     if (p != null) {
-                         spawnItemFor(p);
-                     }
+                 for (ServerPlayer p : getViewers()) {
+                     spawnItemFor(p);
                  }
             }
         }
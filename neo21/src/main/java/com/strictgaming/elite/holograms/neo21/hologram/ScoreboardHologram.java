@@ -3,23 +3,14 @@ package com.strictgaming.elite.holograms.neo21.hologram;
 import com.strictgaming.elite.holograms.neo21.hologram.implementation.NeoForgeHologram;
 
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.scores.Objective;
-import net.minecraft.world.scores.PlayerScoreEntry;
-import net.minecraft.world.scores.ScoreAccess;
-import net.minecraft.world.scores.Scoreboard;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * A hologram that renders the top players of a scoreboard objective and periodically updates.
@@ -38,8 +29,8 @@ public class ScoreboardHologram extends NeoForgeHologram {
     private final boolean isTimeObjective;
     private final int range;
 
-    private long lastUpdateMs = 0L;
-    private List<ScoreEntry> lastScores = new ArrayList<>();
+    private ScoreboardSnapshots.Snapshot lastSnapshot;
+    private List<ScoreboardRanking.Entry> lastScores = new ArrayList<>();
 
     public ScoreboardHologram(
             String id,
@@ -58,7 +49,7 @@ public class ScoreboardHologram extends NeoForgeHologram {
         super(id, worldName, x, y, z, new ArrayList<>());
 
         this.objectiveName = objectiveName;
-        this.topCount = Math.max(1, Math.min(topCount, 10));
+        this.topCount = Math.max(1, Math.min(topCount, ScoreboardRanking.MAX_COUNT));
         this.updateIntervalSeconds = Math.max(5, updateIntervalSeconds);
         this.isTimeObjective = isTimeBasedObjective(objectiveName);
         this.headerFormat = headerFormat != null ? headerFormat : "§6§l{objective} - Top {count}";
@@ -68,21 +59,39 @@ public class ScoreboardHologram extends NeoForgeHologram {
         this.emptyFormat = emptyFormat != null ? emptyFormat : "§7No data available";
         this.range = range > 0 ? range : 32;
 
-        // Initialize display immediately
-        updateScoreboardDisplay();
+        // Initialize display immediately, from the objective's current snapshot if another hologram already shows it
+        ScoreboardSnapshots.subscribe(objectiveName, id, this.updateIntervalSeconds * 1000L);
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (snapshot == null && server != null) {
+            snapshot = ScoreboardSnapshots.refresh(server, objectiveName);
+        }
+        updateScoreboardDisplay(snapshot);
     }
 
+    /**
+     * Updates the display once a new snapshot of the objective was published
+     */
     public void tick() {
-        long now = System.currentTimeMillis();
-        if (now - lastUpdateMs >= (updateIntervalSeconds * 1000L)) {
-            updateScoreboardDisplay();
-            lastUpdateMs = now;
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        if (snapshot != null && snapshot != lastSnapshot) {
+            updateScoreboardDisplay(snapshot);
         }
     }
 
+    /**
+     * Checks if a new snapshot of the objective was published since the display was last updated
+     */
+    public boolean isOutdated() {
+        ScoreboardSnapshots.Snapshot snapshot = ScoreboardSnapshots.getSnapshot(objectiveName);
+        return snapshot != null && snapshot != lastSnapshot;
+    }
+
     public void forceUpdate() {
-        updateScoreboardDisplay();
-        lastUpdateMs = System.currentTimeMillis();
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            updateScoreboardDisplay(ScoreboardSnapshots.refresh(server, objectiveName));
+        }
     }
 
     @Override
@@ -96,9 +105,13 @@ public class ScoreboardHologram extends NeoForgeHologram {
         return (dx * dx + dy * dy + dz * dz) <= (range * range);
     }
 
-    private void updateScoreboardDisplay() {
+    /**
+     * Updates the lines if the top scores in the snapshot changed, the snapshot may be null if there isn't one yet
+     */
+    private void updateScoreboardDisplay(ScoreboardSnapshots.Snapshot snapshot) {
+        lastSnapshot = snapshot;
         try {
-            List<ScoreEntry> current = getTopScores();
+            List<ScoreboardRanking.Entry> current = snapshot == null ? Collections.emptyList() : snapshot.getTop(topCount);
             if (!scoresEqual(current, lastScores)) {
                 applyLines(current);
                 lastScores = new ArrayList<>(current);
@@ -109,50 +122,7 @@ public class ScoreboardHologram extends NeoForgeHologram {
         }
     }
 
-    private List<ScoreEntry> getTopScores() {
-        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
-        if (server == null) {
-            return Collections.emptyList();
-        }
-
-        Scoreboard scoreboard = server.getScoreboard();
-        Objective objective = scoreboard.getObjective(objectiveName);
-        if (objective == null) {
-            LOGGER.debug("Objective '{}' not found", objectiveName);
-            return Collections.emptyList();
-        }
-
-        // listPlayerScores returns ALL entries for the objective, including offline players
-        Collection<PlayerScoreEntry> entries = scoreboard.listPlayerScores(objective);
-        Map<String, Integer> playerScores = new HashMap<>();
-        for (PlayerScoreEntry entry : entries) {
-            String owner = entry.owner();
-            if (owner != null && !owner.isEmpty() && !entry.isHidden()) {
-                playerScores.put(owner, entry.value());
-            }
-        }
-
-        // Fallback: online players only if listPlayerScores is empty (e.g. objective has no data yet)
-        if (playerScores.isEmpty()) {
-            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-                if (player == null) continue;
-                try {
-                    ScoreAccess sc = scoreboard.getOrCreatePlayerScore(player, objective);
-                    int value = sc.get();
-                    String name = player.getScoreboardName();
-                    playerScores.put(name, value);
-                } catch (Throwable ignored) {}
-            }
-        }
-
-        return playerScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(topCount)
-                .map(e -> new ScoreEntry(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
-    }
-
-    private void applyLines(List<ScoreEntry> top) {
+    private void applyLines(List<ScoreboardRanking.Entry> top) {
         List<String> newLines = new ArrayList<>();
 
         String header = headerFormat
@@ -164,7 +134,7 @@ public class ScoreboardHologram extends NeoForgeHologram {
             newLines.add(emptyFormat);
         } else {
             for (int i = 0; i < top.size(); i++) {
-                ScoreEntry e = top.get(i);
+                ScoreboardRanking.Entry e = top.get(i);
                 String line = playerFormat
                         .replace("{rank}", String.valueOf(i + 1))
                         .replace("{player}", e.playerName)
@@ -176,17 +146,15 @@ public class ScoreboardHologram extends NeoForgeHologram {
 
         // Update display without saving — scoreboard lines are computed, not user content.
         // The scoreboard config is saved separately by HologramManager.
-        updateHologramContentNoSave(() -> {
-            getLinesContentInternal().clear();
-            getLinesContentInternal().addAll(newLines);
-        });
+        // Rows that kept their text send nothing, so one changed score is one metadata packet per viewer
+        updateLinesInPlace(newLines);
     }
 
-    private boolean scoresEqual(List<ScoreEntry> a, List<ScoreEntry> b) {
+    private boolean scoresEqual(List<ScoreboardRanking.Entry> a, List<ScoreboardRanking.Entry> b) {
         if (a.size() != b.size()) return false;
         for (int i = 0; i < a.size(); i++) {
-            ScoreEntry e1 = a.get(i);
-            ScoreEntry e2 = b.get(i);
+            ScoreboardRanking.Entry e1 = a.get(i);
+            ScoreboardRanking.Entry e2 = b.get(i);
             if (!e1.playerName.equals(e2.playerName) || e1.score != e2.score) return false;
         }
         return true;
@@ -232,15 +200,6 @@ public class ScoreboardHologram extends NeoForgeHologram {
     public String getHeaderFormat() { return headerFormat; }
     public String getPlayerFormat() { return playerFormat; }
     public String getEmptyFormat() { return emptyFormat; }
-
-    private static class ScoreEntry {
-        final String playerName;
-        final int score;
-        ScoreEntry(String playerName, int score) {
-            this.playerName = playerName;
-            this.score = score;
-        }
-    }
 }
 
 
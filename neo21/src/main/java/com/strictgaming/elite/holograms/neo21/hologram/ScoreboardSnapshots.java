@@ -0,0 +1,244 @@
+package com.strictgaming.elite.holograms.neo21.hologram;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.ServerScoreboard;
+import net.minecraft.world.scores.Objective;
+
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one ranked snapshot per scoreboard objective a {@link ScoreboardHologram} shows. Holograms subscribe with the
+ * interval they want their objective refreshed at, and each objective is scanned once per the shortest interval any of
+ * its subscribers asked for, however many holograms show it. Snapshots never change, a refresh publishes a new one, so
+ * a hologram only has to check whether its snapshot was replaced. With event driven updates objectives aren't scanned
+ * on an interval, the server scoreboard tells us when anything on it changed and the objectives are scanned on the next
+ * tick, so a quiet scoreboard costs nothing
+ */
+public final class ScoreboardSnapshots {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long SLOW_SCAN_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    // How often an objective is scanned at most with event driven updates, play time and the like change every tick
+    private static final long EVENT_SCAN_FLOOR_MILLIS = 1000L;
+    private static final Map<String, Subscription> SUBSCRIPTIONS = new ConcurrentHashMap<>();
+    // Counts the changes the scoreboard reported, an objective scanned at an older count may be out of date
+    private static final AtomicLong CHANGES = new AtomicLong();
+
+    private static volatile boolean eventDriven = false;
+    private static ServerScoreboard listenedScoreboard;
+
+    private ScoreboardSnapshots() {
+    }
+
+    /**
+     * Sets whether objectives are scanned when the scoreboard changes instead of on their subscribers' intervals
+     */
+    public static void setEventDriven(boolean eventDriven) {
+        ScoreboardSnapshots.eventDriven = eventDriven;
+    }
+
+    /**
+     * Subscribes to an objective, replacing the subscriber's previous interval if it was already subscribed
+     */
+    public static void subscribe(String objectiveName, String subscriberId, long intervalMillis) {
+        SUBSCRIPTIONS.computeIfAbsent(objectiveName, Subscription::new).intervals.put(subscriberId, intervalMillis);
+    }
+
+    /**
+     * Stops refreshing the objective for the subscriber, the objective stops being scanned once nobody is subscribed
+     */
+    public static void unsubscribe(String objectiveName, String subscriberId) {
+        SUBSCRIPTIONS.computeIfPresent(objectiveName, (name, subscription) -> {
+            subscription.intervals.remove(subscriberId);
+            return subscription.intervals.isEmpty() ? null : subscription;
+        });
+    }
+
+    /**
+     * Drops every subscription, for when every hologram is removed at once, holograms created afterwards subscribe again
+     */
+    public static void clear() {
+        SUBSCRIPTIONS.clear();
+    }
+
+    /**
+     * Gets the latest snapshot of the objective, or null if nobody is subscribed or it hasn't been scanned yet
+     */
+    public static Snapshot getSnapshot(String objectiveName) {
+        Subscription subscription = SUBSCRIPTIONS.get(objectiveName);
+        return subscription == null ? null : subscription.snapshot;
+    }
+
+    /**
+     * Scans every objective whose shortest interval has passed since it was last scanned. Called every tick on the
+     * server thread, before the scoreboard holograms are ticked
+     */
+    public static void tick(MinecraftServer server) {
+        if (server == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!eventDriven) {
+            for (Subscription subscription : SUBSCRIPTIONS.values()) {
+                if (now - subscription.lastScan >= subscription.getInterval()) {
+                    subscription.scan(server, now);
+                }
+            }
+            return;
+        }
+
+        listen(server.getScoreboard());
+        long changes = CHANGES.get();
+        for (Subscription subscription : SUBSCRIPTIONS.values()) {
+            if (subscription.scannedChanges != changes && now - subscription.lastScan >= EVENT_SCAN_FLOOR_MILLIS) {
+                subscription.scan(server, now);
+            }
+        }
+    }
+
+    /**
+     * Counts the scoreboard's changes from now on. The listener can't be removed again, but the scoreboard goes away
+     * with its server and counting is all the listener does
+     */
+    private static void listen(ServerScoreboard scoreboard) {
+        if (scoreboard == listenedScoreboard) {
+            return;
+        }
+
+        scoreboard.addDirtyListener(CHANGES::incrementAndGet);
+        listenedScoreboard = scoreboard;
+        // Nothing was counted before, so every objective has to be scanned once
+        CHANGES.incrementAndGet();
+    }
+
+    /**
+     * Scans the objective right away, for a hologram that has to show the current scores. Returns null if nobody is
+     * subscribed to the objective
+     */
+    public static Snapshot refresh(MinecraftServer server, String objectiveName) {
+        Subscription subscription = SUBSCRIPTIONS.get(objectiveName);
+        if (subscription == null) {
+            return null;
+        }
+
+        subscription.scan(server, System.currentTimeMillis());
+        return subscription.snapshot;
+    }
+
+    /**
+     * Describes how long scanning each objective takes, for logging
+     */
+    public static String describe() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Subscription subscription : SUBSCRIPTIONS.values()) {
+            joiner.add(subscription.describe());
+        }
+        return joiner.length() == 0 ? "no objectives" : joiner.toString();
+    }
+
+    private static final class Subscription {
+        private final String objectiveName;
+        private final Map<String, Long> intervals = new ConcurrentHashMap<>();
+        private volatile Snapshot snapshot;
+        private long lastScan = 0L;
+        private long scannedChanges = -1L;
+        private long scans = 0L;
+        private long totalScanNanos = 0L;
+        private long longestScanNanos = 0L;
+
+        private Subscription(String objectiveName) {
+            this.objectiveName = objectiveName;
+        }
+
+        private long getInterval() {
+            long interval = Long.MAX_VALUE;
+            for (long subscriberInterval : intervals.values()) {
+                interval = Math.min(interval, subscriberInterval);
+            }
+            return interval;
+        }
+
+        private void scan(MinecraftServer server, long now) {
+            // Read before scanning, a change made during the scan is picked up by the next one
+            scannedChanges = CHANGES.get();
+            long start = System.nanoTime();
+            Objective objective = server.getScoreboard().getObjective(objectiveName);
+            List<ScoreboardRanking.Entry> entries;
+            if (objective == null) {
+                LOGGER.debug("Objective '{}' not found", objectiveName);
+                entries = List.of();
+            } else {
+                entries = ScoreboardRanking.rank(server, objective, ScoreboardRanking.MAX_COUNT);
+            }
+
+            long nanos = System.nanoTime() - start;
+            snapshot = new Snapshot(objectiveName, entries, now, nanos);
+            lastScan = now;
+            scans++;
+            totalScanNanos += nanos;
+            longestScanNanos = Math.max(longestScanNanos, nanos);
+
+            if (nanos >= SLOW_SCAN_NANOS) {
+                LOGGER.debug("Slow scoreboard scan: {}", describe());
+            }
+        }
+
+        private String describe() {
+            Snapshot latest = snapshot;
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            return String.format("%s (%d holograms, %s, %d scans, last %.2f ms, average %.2f ms, longest %.2f ms)",
+                    objectiveName,
+                    intervals.size(),
+                    eventDriven ? "on change" : "every " + getInterval() + " ms",
+                    scans,
+                    latest == null ? 0.0 : latest.getScanNanos() / nanosPerMilli,
+                    scans == 0 ? 0.0 : totalScanNanos / (double) scans / nanosPerMilli,
+                    longestScanNanos / nanosPerMilli);
+        }
+    }
+
+    /**
+     * The ranked scores of an objective at one point in time
+     */
+    public static final class Snapshot {
+        private final String objectiveName;
+        private final List<ScoreboardRanking.Entry> entries;
+        private final long takenAt;
+        private final long scanNanos;
+
+        private Snapshot(String objectiveName, List<ScoreboardRanking.Entry> entries, long takenAt, long scanNanos) {
+            this.objectiveName = objectiveName;
+            this.entries = entries;
+            this.takenAt = takenAt;
+            this.scanNanos = scanNanos;
+        }
+
+        public String getObjectiveName() {
+            return objectiveName;
+        }
+
+        /**
+         * Gets the best entries, best first, at most {@link ScoreboardRanking#MAX_COUNT}
+         */
+        public List<ScoreboardRanking.Entry> getTop(int count) {
+            return entries.subList(0, Math.min(count, entries.size()));
+        }
+
+        public long getTakenAt() {
+            return takenAt;
+        }
+
+        public long getScanNanos() {
+            return scanNanos;
+        }
+    }
+}
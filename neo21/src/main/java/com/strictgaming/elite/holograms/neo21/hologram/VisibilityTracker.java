@@ -0,0 +1,110 @@
+package com.strictgaming.elite.holograms.neo21.hologram;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers where each player was the last time their hologram visibility was evaluated, so
+ * visibility is only recalculated once they cross into another chunk, change dimension or move
+ * further than the configured threshold. Players standing still cost a single map lookup.
+ */
+public class VisibilityTracker {
+
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
+    private volatile double moveThresholdSquared;
+
+    public VisibilityTracker(double moveThreshold) {
+        setMoveThreshold(moveThreshold);
+    }
+
+    public void setMoveThreshold(double moveThreshold) {
+        this.moveThresholdSquared = moveThreshold * moveThreshold;
+    }
+
+    /**
+     * Checks if the player has moved far enough since the last evaluation. If so the player's
+     * position is recorded as evaluated and true is returned.
+     *
+     * @param player The player to check
+     * @return true if the player's hologram visibility should be re-evaluated
+     */
+    public boolean shouldEvaluate(ServerPlayer player) {
+        if (player == null || player.level() == null) {
+            return false;
+        }
+
+        PlayerState state = states.get(player.getUUID());
+        if (state == null) {
+            states.put(player.getUUID(), new PlayerState(player));
+            return true;
+        }
+
+        if (state.hasMoved(player, moveThresholdSquared)) {
+            state.record(player);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Forces the player to be re-evaluated the next time they are checked
+     *
+     * @param uuid The player's UUID
+     */
+    public void invalidate(UUID uuid) {
+        if (uuid != null) {
+            states.remove(uuid);
+        }
+    }
+
+    /**
+     * Forces every player to be re-evaluated, used when holograms are created or moved
+     */
+    public void invalidateAll() {
+        states.clear();
+    }
+
+    private static final class PlayerState {
+
+        private ResourceKey<Level> dimension;
+        private int chunkX;
+        private int chunkZ;
+        private double x;
+        private double y;
+        private double z;
+
+        private PlayerState(ServerPlayer player) {
+            record(player);
+        }
+
+        private void record(ServerPlayer player) {
+            this.dimension = player.level().dimension();
+            this.chunkX = player.chunkPosition().x;
+            this.chunkZ = player.chunkPosition().z;
+            this.x = player.getX();
+            this.y = player.getY();
+            this.z = player.getZ();
+        }
+
+        private boolean hasMoved(ServerPlayer player, double thresholdSquared) {
+            if (player.level().dimension() != this.dimension) {
+                return true;
+            }
+
+            if (player.chunkPosition().x != this.chunkX || player.chunkPosition().z != this.chunkZ) {
+                return true;
+            }
+
+            double dx = player.getX() - this.x;
+            double dy = player.getY() - this.y;
+            double dz = player.getZ() - this.z;
+            return (dx * dx + dy * dy + dz * dz) > thresholdSquared;
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package com.strictgaming.elite.holograms.neo21.hologram.entity;
 
-import com.strictgaming.elite.holograms.neo21.util.UtilChatColour;
-import com.strictgaming.elite.holograms.neo21.util.UtilPlaceholder;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.decoration.ArmorStand;
 import java.util.List;
 
 public class AnimatedHologramLine extends HologramLine {
@@ -11,39 +8,59 @@ public class AnimatedHologramLine extends HologramLine {
     private final List<String> frames;
     private final int intervalTicks;
     private int currentFrameIndex = 0;
-    private int ticksSinceLastUpdate = 0;
+    private long startTick = -1L;
 
-    public AnimatedHologramLine(ArmorStand armorStand, List<String> frames, int intervalTicks) {
-        super(armorStand, frames.isEmpty() ? "" : frames.get(0));
+    public AnimatedHologramLine(double x, double y, double z, List<String> frames, int intervalTicks) {
+        super(x, y, z, frames.isEmpty() ? "" : frames.get(0));
         this.frames = frames;
         this.intervalTicks = intervalTicks;
     }
 
     /**
-     * Ticks the animation
+     * Starts the line's clock, its frames are counted from this tick on. Only the first call counts
+     * @param tick The animation wheel's current tick
+     */
+    public void start(long tick) {
+        if (startTick < 0) {
+            startTick = tick;
+        }
+    }
+
+    /**
+     * Shows the frame the line's clock is at, skipping the frames it missed while nobody could see it
+     * @param tick The animation wheel's current tick
      * @return true if the frame changed
      */
-    public boolean tick() {
-        if (frames.isEmpty() || frames.size() < 2) {
+    public boolean showFrameAt(long tick) {
+        if (frames.size() < 2 || startTick < 0) {
             return false;
         }
 
-        ticksSinceLastUpdate++;
-        
-        if (ticksSinceLastUpdate >= intervalTicks) {
-            ticksSinceLastUpdate = 0;
-            currentFrameIndex = (currentFrameIndex + 1) % frames.size();
-            
-            // Update the raw text of the parent so it holds the current frame
-            this.rawText = frames.get(currentFrameIndex);
-            
-            // We also update the armorstand's custom name locally
-            this.armorStand.setCustomName(UtilChatColour.parse(UtilPlaceholder.replacePlaceholders(this.rawText, null)));
-            
-            return true;
+        int frameIndex = (int) (((tick - startTick) / getPeriod()) % frames.size());
+
+        if (frameIndex == currentFrameIndex) {
+            return false;
         }
-        
-        return false;
+
+        currentFrameIndex = frameIndex;
+
+        // Update the raw text of the parent so it holds the current frame
+        this.setRawText(frames.get(currentFrameIndex));
+        return true;
+    }
+
+    /**
+     * Gets the first tick after the given one that the line's frame changes at
+     * @param tick The animation wheel's current tick
+     * @return The tick of the next frame change
+     */
+    public long getNextFrameTick(long tick) {
+        long period = getPeriod();
+        return startTick + ((tick - startTick) / period + 1) * period;
+    }
+
+    private int getPeriod() {
+        return Math.max(1, intervalTicks);
     }
     
     @Override
@@ -51,7 +68,10 @@ public class AnimatedHologramLine extends HologramLine {
         if (frames.isEmpty()) return;
         
         // Ensure rawText matches current frame
-        this.rawText = frames.get(currentFrameIndex);
+        String currentFrame = frames.get(currentFrameIndex);
+        if (!currentFrame.equals(this.rawText)) {
+            this.setRawText(currentFrame);
+        }
         
         // Delegate to parent which handles placeholders and packets
         super.updateForPlayer(player, isInitialSpawn);
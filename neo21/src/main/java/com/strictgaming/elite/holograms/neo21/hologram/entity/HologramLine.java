@@ -1,74 +1,54 @@
 package com.strictgaming.elite.holograms.neo21.hologram.entity;
 
 import com.strictgaming.elite.holograms.neo21.Neo21Holograms;
+import com.strictgaming.elite.holograms.neo21.hologram.PlayerSessionIndex;
 import com.strictgaming.elite.holograms.neo21.util.UtilChatColour;
-import com.strictgaming.elite.holograms.neo21.util.UtilPlaceholder;
+import com.strictgaming.elite.holograms.neo21.util.PlaceholderTemplate;
+import com.strictgaming.elite.holograms.neo21.util.UtilPacket;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
-import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
-import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
-import net.minecraft.network.syncher.SynchedEntityData;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.decoration.ArmorStand;
-import net.minecraft.world.phys.Vec3;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.UUID;
 
+/**
+ * A single line of a hologram. The line only keeps its text and a {@link LineDescriptor} with its entity id and
+ * position, there's no armor stand behind it, every packet is built by {@link HologramPackets}
+ */
 public class HologramLine {
-    private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger(-2000000000);
+    private static final Component EMPTY_NAME = Component.literal(" ");
     
-    protected final ArmorStand armorStand;
+    private volatile LineDescriptor descriptor;
     protected String rawText;
+    protected PlaceholderTemplate template;
+    private boolean released = false;
 
-    public HologramLine(ServerLevel level, double x, double y, double z, String rawText) {
-        this.rawText = rawText;
-        this.armorStand = new ArmorStand(level, x, y, z);
-        this.armorStand.setId(NEXT_ENTITY_ID.getAndIncrement());
-        configureArmorStand();
-        // Set initial name with server-side placeholders resolved, player-side raw
-        this.armorStand.setCustomName(UtilChatColour.parse(UtilPlaceholder.replacePlaceholders(rawText, null)));
-    }
-    
-    protected HologramLine(ArmorStand armorStand, String rawText) {
-        this.armorStand = armorStand;
-        this.rawText = rawText;
-        if (this.armorStand.getId() == 0) { 
-             this.armorStand.setId(NEXT_ENTITY_ID.getAndIncrement());
-        }
-        configureArmorStand();
-        this.armorStand.setCustomName(UtilChatColour.parse(UtilPlaceholder.replacePlaceholders(rawText, null)));
+    // The resolved text each viewer was last sent, by their PlayerSessionIndex. Only allocated once the line has a
+    // viewer, and only grown up to the highest index, which stays about as small as the player count
+    private String[] lastSentText;
+
+    public HologramLine(double x, double y, double z, String rawText) {
+        this.descriptor = new LineDescriptor(EntityIdAllocator.allocate(), UUID.randomUUID(), x, y, z, EMPTY_NAME, true);
+        setRawText(rawText);
     }
 
-    private void configureArmorStand() {
-        armorStand.setInvisible(true);
-        armorStand.setNoGravity(true);
-        armorStand.setCustomNameVisible(true);
-        armorStand.setSilent(true);
-        armorStand.setInvulnerable(true);
-        armorStand.getPersistentData().putBoolean("Marker", true);
-        armorStand.addTag("spectral_vision_unaffected");
+    /**
+     * Sets the raw text, only re-compiling the placeholders when the text changed. The name itself is built per
+     * viewer when the packet is sent
+     */
+    protected void setRawText(String rawText) {
+        if (this.template == null || rawText == null || !rawText.equals(this.rawText)) {
+            this.template = PlaceholderTemplate.compile(rawText);
+        }
+        this.rawText = rawText;
     }
 
     public void spawnToPlayer(ServerPlayer player) {
         if (player == null || player.connection == null) return;
-        
-        ClientboundAddEntityPacket addPacket = new ClientboundAddEntityPacket(
-            this.armorStand.getId(),
-            this.armorStand.getUUID(),
-            this.armorStand.getX(),
-            this.armorStand.getY(),
-            this.armorStand.getZ(),
-            this.armorStand.getXRot(), 
-            this.armorStand.getYRot(), 
-            this.armorStand.getType(),
-            0, 
-            Vec3.ZERO, 
-            this.armorStand.getYHeadRot() 
-        );
-        player.connection.send(addPacket);
+
+        UtilPacket.send(player, HologramPackets.spawn(this.descriptor));
         updateForPlayer(player, true);
     }
 
@@ -79,56 +59,100 @@ public class HologramLine {
     public void updateForPlayer(ServerPlayer player, boolean isInitialSpawn) {
         if (player == null || player.connection == null) return;
 
-        String processedText = this.rawText;
-        if (rawText.equals("{empty}")) {
-            armorStand.setCustomNameVisible(false);
-            armorStand.setCustomName(Component.literal(" "));
-        } else {
-            armorStand.setCustomNameVisible(true);
-            if (Neo21Holograms.getInstance().arePlaceholdersEnabled()) {
-                processedText = UtilPlaceholder.replacePlaceholders(this.rawText, player);
-            }
-            armorStand.setCustomName(UtilChatColour.parse(processedText));
+        boolean empty = "{empty}".equals(this.rawText);
+        String processedText = this.rawText == null ? "" : this.rawText;
+        if (!empty && hasPlaceholders() && Neo21Holograms.getInstance().arePlaceholdersEnabled()) {
+            processedText = this.template.render(player);
         }
-        
-        List<SynchedEntityData.DataValue<?>> packedData;
-        if (isInitialSpawn) {
-            packedData = armorStand.getEntityData().getNonDefaultValues();
-        } else {
-            packedData = armorStand.getEntityData().packDirty(); 
-        }
-        
-        if (packedData != null && !packedData.isEmpty()) {
-            player.connection.send(new ClientboundSetEntityDataPacket(armorStand.getId(), packedData));
+
+        // Nothing changed for this viewer since the last packet, so there's nothing to send
+        String lastSent = setLastSent(PlayerSessionIndex.getIndex(player), processedText);
+        if (!isInitialSpawn && processedText.equals(lastSent)) {
+            return;
         }
+
+        // The name is built for this viewer only, on a copy of the descriptor, so one viewer's text can't leak
+        // into another viewer's packet
+        Component name = empty ? EMPTY_NAME : UtilChatColour.parseCached(processedText);
+        UtilPacket.send(player, HologramPackets.data(this.descriptor.withName(name, !empty), isInitialSpawn));
     }
 
     public void despawnFromPlayer(ServerPlayer player) {
-        if (player == null || player.connection == null) return;
-        player.connection.send(new ClientboundRemoveEntitiesPacket(armorStand.getId()));
+        if (player == null) return;
+        setLastSent(PlayerSessionIndex.getIndex(player), null);
+        if (player.connection == null) return;
+        UtilPacket.send(player, new ClientboundRemoveEntitiesPacket(this.descriptor.entityId));
     }
     
+    /**
+     * Records the text sent to the viewer with the given index
+     *
+     * @return The text the viewer was sent before, or null if there's none
+     */
+    private synchronized String setLastSent(int index, String text) {
+        // Players without an index have left, they're sent everything
+        if (index < 0) {
+            return null;
+        }
+
+        if (this.lastSentText == null || index >= this.lastSentText.length) {
+            if (text == null) {
+                return null;
+            }
+
+            int length = this.lastSentText == null ? 4 : this.lastSentText.length * 2;
+            this.lastSentText = this.lastSentText == null
+                    ? new String[Math.max(index + 1, length)]
+                    : Arrays.copyOf(this.lastSentText, Math.max(index + 1, length));
+        }
+
+        String previous = this.lastSentText[index];
+        this.lastSentText[index] = text;
+        return previous;
+    }
+
     public void setPosition(double x, double y, double z) {
-        armorStand.setPos(x,y,z);
+        this.descriptor = this.descriptor.withPosition(x, y, z);
     }
     
     public void sendTeleportPacket(ServerPlayer player) {
         if (player == null || player.connection == null) return;
-        player.connection.send(new ClientboundTeleportEntityPacket(this.armorStand));
+        UtilPacket.send(player, HologramPackets.teleport(this.descriptor));
     }
     
     public void updateRawTextAndRefresh(String newRawText, List<ServerPlayer> playersToRefreshFor) {
-        this.rawText = newRawText;
-        this.armorStand.setCustomName(UtilChatColour.parse(UtilPlaceholder.replacePlaceholders(newRawText, null)));
+        setRawText(newRawText);
         playersToRefreshFor.forEach(p -> this.updateForPlayer(p, false));
     }
     
     public String getText() {
         return rawText;
     }
+
+    public boolean hasPlaceholders() {
+        return this.template != null && !this.template.isStatic();
+    }
     
-    public ArmorStand getArmorStand() {
-        return armorStand;
+    public int getEntityId() {
+        return this.descriptor.entityId;
+    }
+
+    /**
+     * Gives the entity id back to the {@link EntityIdAllocator} once the line has been despawned for every viewer and
+     * won't be shown again
+     */
+    public synchronized void release() {
+        if (!this.released) {
+            this.released = true;
+            EntityIdAllocator.release(this.descriptor.entityId);
+        }
     }
-}
 
+    public synchronized boolean isReleased() {
+        return this.released;
+    }
+
+    public LineDescriptor getDescriptor() {
+        return this.descriptor;
+    }
+}
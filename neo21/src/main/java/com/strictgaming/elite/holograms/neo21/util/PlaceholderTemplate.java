@@ -0,0 +1,126 @@
+package com.strictgaming.elite.holograms.neo21.util;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A line of hologram text parsed once into literal segments and placeholder slots, so rendering
+ * it for a viewer is a single pass over a pre-sized builder instead of a contains/replace per placeholder
+ */
+public class PlaceholderTemplate {
+
+    private static final int ESTIMATED_VALUE_LENGTH = 8;
+
+    private final String raw;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final boolean playerPlaceholders;
+    private final int literalLength;
+
+    private PlaceholderTemplate(String raw, String[] literals, String[] placeholders, boolean playerPlaceholders) {
+        this.raw = raw;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.playerPlaceholders = playerPlaceholders;
+
+        int length = 0;
+
+        for (String literal : literals) {
+            length += literal.length();
+        }
+
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses the text into a template. Anything between two % signs that isn't a known placeholder is kept as-is
+     *
+     * @param text The raw text
+     * @return The compiled template
+     */
+    public static PlaceholderTemplate compile(String text) {
+        if (text == null) {
+            text = "";
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        boolean playerPlaceholders = false;
+        int literalStart = 0;
+        int start = text.indexOf('%');
+
+        while (start != -1) {
+            int end = text.indexOf('%', start + 1);
+
+            if (end == -1) {
+                break;
+            }
+
+            String key = text.substring(start, end + 1);
+
+            if (!UtilPlaceholder.isPlaceholder(key)) {
+                // Not one of ours, the closing % might open the next placeholder
+                start = end;
+                continue;
+            }
+
+            literals.add(text.substring(literalStart, start));
+            placeholders.add(key);
+            playerPlaceholders |= UtilPlaceholder.isPlayerPlaceholder(key);
+            literalStart = end + 1;
+            start = text.indexOf('%', literalStart);
+        }
+
+        literals.add(text.substring(literalStart));
+
+        return new PlaceholderTemplate(text, literals.toArray(new String[0]),
+                placeholders.toArray(new String[0]), playerPlaceholders);
+    }
+
+    /**
+     * Renders the template for the viewer
+     *
+     * @param player The player viewing the hologram (null for server-only placeholders)
+     * @return The text with placeholders replaced
+     */
+    public String render(ServerPlayer player) {
+        if (this.isStatic()) {
+            return this.raw;
+        }
+
+        StringBuilder builder = new StringBuilder(this.literalLength + this.placeholders.length * ESTIMATED_VALUE_LENGTH);
+
+        for (int i = 0; i < this.placeholders.length; i++) {
+            builder.append(this.literals[i]);
+
+            String value = UtilPlaceholder.resolve(this.placeholders[i], player);
+            builder.append(value == null ? this.placeholders[i] : value);
+        }
+
+        return builder.append(this.literals[this.placeholders.length]).toString();
+    }
+
+    /**
+     * Checks if the template has no placeholders, in which case it renders the same for everyone
+     *
+     * @return true if there's nothing to replace
+     */
+    public boolean isStatic() {
+        return this.placeholders.length == 0;
+    }
+
+    /**
+     * Checks if the template renders differently per viewer
+     *
+     * @return true if any placeholder depends on the viewing player
+     */
+    public boolean hasPlayerPlaceholders() {
+        return this.playerPlaceholders;
+    }
+
+    public String getRaw() {
+        return this.raw;
+    }
+}
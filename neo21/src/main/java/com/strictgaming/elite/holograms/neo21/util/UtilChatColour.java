@@ -7,6 +7,10 @@ import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  *
  * A simple utility class for handling colors in chat.
@@ -26,6 +30,19 @@ public class UtilChatColour {
     // GSON serializer for converting Adventure Component to Minecraft Component
     private static final GsonComponentSerializer GSON_SERIALIZER = GsonComponentSerializer.gson();
 
+    private static final Component EMPTY = Component.literal("");
+
+    // Parsed components keyed by the text they were parsed from, least recently used are evicted first
+    private static volatile int cacheSize = 2048;
+    private static final Map<String, Component> CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+
     /**
      *
      * Translate the color codes in the given message using the given color code prefix
@@ -90,6 +107,43 @@ public class UtilChatColour {
             return Component.literal("");
         }
 
+        return parseCached(message).copy();
+    }
+
+    /**
+     * Same as {@link #parse(String)}, but the component is shared with every other caller that parsed the same
+     * text and must not be modified. Use this when the component is only handed to the client, e.g. as a custom name
+     *
+     * @param message The message
+     * @return The shared component
+     */
+    public static Component parseCached(String message) {
+        if (message == null || message.isEmpty()) {
+            return EMPTY;
+        }
+
+        Component cached;
+
+        synchronized (CACHE) {
+            cached = CACHE.get(message);
+        }
+
+        if (cached != null) {
+            CACHE_HITS.incrementAndGet();
+            return cached;
+        }
+
+        CACHE_MISSES.incrementAndGet();
+        Component parsed = parseUncached(message);
+
+        synchronized (CACHE) {
+            CACHE.put(message, parsed);
+        }
+
+        return parsed;
+    }
+
+    private static MutableComponent parseUncached(String message) {
         try {
             net.kyori.adventure.text.Component adventureComponent;
             
@@ -102,13 +156,24 @@ public class UtilChatColour {
                 // No MiniMessage tags, just parse legacy codes
                 adventureComponent = LEGACY_SERIALIZER.deserialize(message);
             }
+
+            // Plain text with colours and decorations converts directly, skipping the JSON round trip
+            MutableComponent converted = AdventureComponentConverter.toVanilla(adventureComponent);
+
+            if (converted != null) {
+                return converted;
+            }
             
             // Convert Adventure Component to Minecraft Component
             // Note: NeoForge often includes native conversion but using GSON is a safe cross-version way
             String json = GSON_SERIALIZER.serialize(adventureComponent);
             
             // Component.Serializer in 1.21 might be different
-            return Component.Serializer.fromJson(json, net.minecraft.core.HolderLookup.Provider.create(java.util.stream.Stream.empty()));
+            MutableComponent deserialized = Component.Serializer.fromJson(json, net.minecraft.core.HolderLookup.Provider.create(java.util.stream.Stream.empty()));
+
+            if (deserialized != null) {
+                return deserialized;
+            }
             // Wait, 1.21 Component.Serializer.fromJson requires context or uses a simpler one?
             // Actually, Component.Serializer.fromJson(String) still exists in 1.20.4, let's check 1.21.
             // In 1.20.5+ serialization changed to require registry lookup often.
@@ -229,4 +294,53 @@ public class UtilChatColour {
                message.contains("<obf>") ||
                message.contains("<reset>");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Sets how many parsed components are kept in the cache
+     *
+     * @param size The maximum number of entries, at least 1
+     */
+    public static void setCacheSize(int size) {
+        cacheSize = Math.max(1, size);
+
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * Drops every cached component, used when holograms are reloaded
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    public static long getCacheHits() {
+        return CACHE_HITS.get();
+    }
+
+    public static long getCacheMisses() {
+        return CACHE_MISSES.get();
+    }
+
+    public static int getCacheEntries() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Gets a one line summary of the cache for logging
+     *
+     * @return The cache stats
+     */
+    public static String getCacheStats() {
+        long hits = getCacheHits();
+        long misses = getCacheMisses();
+        long total = hits + misses;
+        double hitRate = total == 0 ? 0.0 : (hits * 100.0) / total;
+        return String.format("%d entries, %d hits, %d misses (%.1f%% hit rate)", getCacheEntries(), hits, misses, hitRate);
+    }
+}
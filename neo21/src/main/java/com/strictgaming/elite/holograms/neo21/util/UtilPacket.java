@@ -0,0 +1,125 @@
+package com.strictgaming.elite.holograms.neo21.util;
+
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * Batches every hologram packet sent to a player during a tick and flushes them as bundle packets
+ * at the end of the tick, so a player walking into a dense area gets one flush instead of hundreds
+ *
+ */
+public class UtilPacket {
+
+    /**
+     * The client rejects bundles with more packets than this
+     */
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    private static final Map<UUID, PendingPackets> PENDING = new ConcurrentHashMap<>();
+
+    private UtilPacket() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Queues a packet to be sent to the player at the end of the current tick
+     *
+     * @param player The player to send the packet to
+     * @param packet The packet to send
+     */
+    public static void send(ServerPlayer player, Packet<? super ClientGamePacketListener> packet) {
+        if (player == null || player.connection == null || packet == null) {
+            return;
+        }
+
+        while (!PENDING.computeIfAbsent(player.getUUID(), uuid -> new PendingPackets()).add(player, packet)) {
+            // The queue was flushed while we were adding to it, try again with a fresh one
+        }
+    }
+
+    /**
+     * Sends all queued packets, one bundle per player. Should be called from the main server thread
+     * at the end of every tick
+     */
+    public static void flush() {
+        Iterator<PendingPackets> iterator = PENDING.values().iterator();
+
+        while (iterator.hasNext()) {
+            PendingPackets pending = iterator.next();
+            iterator.remove();
+            pending.close().send();
+        }
+    }
+
+    /**
+     * Drops any queued packets for the player, used when they log out
+     *
+     * @param uuid The player's UUID
+     */
+    public static void clear(UUID uuid) {
+        if (uuid == null) {
+            return;
+        }
+
+        PendingPackets pending = PENDING.remove(uuid);
+
+        if (pending != null) {
+            pending.close();
+        }
+    }
+
+    private static final class PendingPackets {
+
+        private final List<Packet<? super ClientGamePacketListener>> packets = new ArrayList<>();
+        private ServerPlayer player;
+        private boolean closed = false;
+
+        private synchronized boolean add(ServerPlayer player, Packet<? super ClientGamePacketListener> packet) {
+            if (this.closed) {
+                return false;
+            }
+
+            // Respawning creates a new player object, always send to the latest one
+            this.player = player;
+            this.packets.add(packet);
+            return true;
+        }
+
+        private synchronized PendingPackets close() {
+            this.closed = true;
+            return this;
+        }
+
+        private void send() {
+            if (this.packets.isEmpty() || this.player == null || this.player.connection == null) {
+                return;
+            }
+
+            if (this.packets.size() == 1) {
+                this.player.connection.send(this.packets.get(0));
+                return;
+            }
+
+            for (int start = 0; start < this.packets.size(); start += MAX_BUNDLE_SIZE) {
+                List<Packet<? super ClientGamePacketListener>> bundle =
+                        this.packets.subList(start, Math.min(start + MAX_BUNDLE_SIZE, this.packets.size()));
+
+                if (bundle.size() == 1) {
+                    this.player.connection.send(bundle.get(0));
+                } else {
+                    this.player.connection.send(new ClientboundBundlePacket(bundle));
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.strictgaming.elite.holograms.neo21.util;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.GameType;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
@@ -9,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 
 /**
  * Utility class for handling placeholder replacement in hologram text
@@ -17,13 +19,46 @@ public class UtilPlaceholder {
 
     private static final Logger LOGGER = LogManager.getLogger("EliteHolograms");
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.##");
+
+    private static final Set<String> SERVER_PLACEHOLDERS = Set.of(
+            "%players%", "%maxplayers%", "%tps%", "%uptime%", "%memory%", "%server_time%"
+    );
+
+    private static final Set<String> PLAYER_PLACEHOLDERS = Set.of(
+            "%player%", "%player_health%", "%player_level%", "%player_world%",
+            "%player_coords%", "%player_gamemode%", "%player_rank%"
+    );
+
     private static long serverStartTime = System.currentTimeMillis();
 
+    // Server placeholders are the same for every viewer, so they're computed once and shared until they go stale
+    private static volatile long currentTick = 0;
+    private static volatile int serverRefreshTicks = 1;
+    private static volatile ServerSnapshot serverSnapshot = null;
+
     /**
      * Set the server start time for uptime calculations
      */
     public static void setServerStartTime() {
         serverStartTime = System.currentTimeMillis();
+        serverSnapshot = null;
+    }
+
+    /**
+     * Advance the placeholder clock, called once at the end of every server tick
+     */
+    public static void tick() {
+        currentTick++;
+    }
+
+    /**
+     * Set how many ticks the server placeholder values are reused for before being recomputed
+     *
+     * @param ticks The number of ticks, at least 1
+     */
+    public static void setServerRefreshInterval(int ticks) {
+        serverRefreshTicks = Math.max(1, ticks);
+        serverSnapshot = null;
     }
 
     /**
@@ -38,106 +73,100 @@ public class UtilPlaceholder {
             return text;
         }
 
-        String result = text;
-
         try {
-            // Server placeholders (always available)
-            result = replaceServerPlaceholders(result);
-
-            // Player-specific placeholders (only when player is provided)
-            if (player != null) {
-                result = replacePlayerPlaceholders(result, player);
-            }
+            return PlaceholderTemplate.compile(text).render(player);
         } catch (Exception e) {
             LOGGER.debug("Error replacing placeholders in text '{}': {}", text, e.getMessage());
+            return text;
         }
+    }
 
-        return result;
+    /**
+     * Check if the text is a placeholder this mod knows how to replace
+     */
+    static boolean isPlaceholder(String placeholder) {
+        return SERVER_PLACEHOLDERS.contains(placeholder) || PLAYER_PLACEHOLDERS.contains(placeholder);
     }
 
     /**
-     * Replace server-wide placeholders
+     * Check if the placeholder depends on the player viewing the hologram
      */
-    private static String replaceServerPlaceholders(String text) {
-        if (ServerLifecycleHooks.getCurrentServer() == null) {
-            return text;
+    static boolean isPlayerPlaceholder(String placeholder) {
+        return PLAYER_PLACEHOLDERS.contains(placeholder);
+    }
+
+    /**
+     * Resolve a single placeholder
+     *
+     * @return The value, or null if it can't be resolved right now (no server, or no player for a player placeholder)
+     */
+    static String resolve(String placeholder, ServerPlayer player) {
+        if (SERVER_PLACEHOLDERS.contains(placeholder)) {
+            return resolveServerPlaceholder(placeholder);
         }
 
-        String result = text;
+        if (player == null) {
+            return null;
+        }
 
         try {
-            // Player count placeholders
-            int playerCount = ServerLifecycleHooks.getCurrentServer().getPlayerCount();
-            int maxPlayers = ServerLifecycleHooks.getCurrentServer().getMaxPlayers();
-            result = result.replace("%players%", String.valueOf(playerCount));
-            result = result.replace("%maxplayers%", String.valueOf(maxPlayers));
-
-            // Server TPS
-            double tps = getServerTPS();
-            result = result.replace("%tps%", DECIMAL_FORMAT.format(tps));
-
-            // Server uptime
-            String uptime = getServerUptime();
-            result = result.replace("%uptime%", uptime);
-
-            // Memory usage
-            String memoryUsage = getMemoryUsage();
-            result = result.replace("%memory%", memoryUsage);
-
-            // Server time
-            String serverTime = getCurrentTime();
-            result = result.replace("%server_time%", serverTime);
-
+            switch (placeholder) {
+                case "%player%":
+                    return player.getName().getString();
+                case "%player_health%":
+                    return DECIMAL_FORMAT.format(player.getHealth());
+                case "%player_level%":
+                    return String.valueOf(player.experienceLevel);
+                case "%player_world%":
+                    return getWorldName(player);
+                case "%player_coords%":
+                    return getPlayerCoordinates(player);
+                case "%player_gamemode%":
+                    return getPlayerGamemode(player);
+                case "%player_rank%":
+                    // Player rank (using permission system)
+                    return UtilPermissions.getPlayerRank(player);
+                default:
+                    return null;
+            }
         } catch (Exception e) {
-            LOGGER.debug("Error replacing server placeholders: {}", e.getMessage());
+            LOGGER.debug("Error replacing player placeholders for {}: {}", player.getName().getString(), e.getMessage());
+            return null;
         }
-
-        return result;
     }
 
     /**
-     * Replace player-specific placeholders
+     * Resolve a server-wide placeholder from the shared snapshot
      */
-    private static String replacePlayerPlaceholders(String text, ServerPlayer player) {
-        if (player == null) {
-            return text;
-        }
-
-        String result = text;
-
-        try {
-            // Player name
-            result = result.replace("%player%", player.getName().getString());
-
-            // Player health
-            float health = player.getHealth();
-            result = result.replace("%player_health%", DECIMAL_FORMAT.format(health));
-
-            // Player level
-            int level = player.experienceLevel;
-            result = result.replace("%player_level%", String.valueOf(level));
-
-            // Player world
-            String worldName = getWorldName(player);
-            result = result.replace("%player_world%", worldName);
+    private static String resolveServerPlaceholder(String placeholder) {
+        ServerSnapshot snapshot = getServerSnapshot();
+        return snapshot == null ? null : snapshot.get(placeholder);
+    }
 
-            // Player coordinates
-            String coordinates = getPlayerCoordinates(player);
-            result = result.replace("%player_coords%", coordinates);
+    /**
+     * Get the server placeholder values for this tick, computing them if they're missing or stale
+     */
+    private static ServerSnapshot getServerSnapshot() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
 
-            // Player gamemode
-            String gamemode = getPlayerGamemode(player);
-            result = result.replace("%player_gamemode%", gamemode);
+        if (server == null) {
+            return null;
+        }
 
-            // Player rank (using permission system)
-            String rank = UtilPermissions.getPlayerRank(player);
-            result = result.replace("%player_rank%", rank);
+        ServerSnapshot snapshot = serverSnapshot;
+        long tick = currentTick;
 
-        } catch (Exception e) {
-            LOGGER.debug("Error replacing player placeholders for {}: {}", player.getName().getString(), e.getMessage());
+        if (snapshot == null || tick - snapshot.tick >= serverRefreshTicks) {
+            try {
+                snapshot = new ServerSnapshot(server, tick);
+                serverSnapshot = snapshot;
+            } catch (Exception e) {
+                LOGGER.debug("Error replacing server placeholders: {}", e.getMessage());
+                return null;
+            }
         }
 
-        return result;
+        return snapshot;
     }
 
     /**
@@ -312,4 +341,47 @@ public class UtilPlaceholder {
         }
         return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Read-only values of every server placeholder at a given tick
+     */
+    private static final class ServerSnapshot {
+
+        private final long tick;
+        private final String players;
+        private final String maxPlayers;
+        private final String tps;
+        private final String uptime;
+        private final String memory;
+        private final String time;
+
+        private ServerSnapshot(MinecraftServer server, long tick) {
+            this.tick = tick;
+            this.players = String.valueOf(server.getPlayerCount());
+            this.maxPlayers = String.valueOf(server.getMaxPlayers());
+            this.tps = DECIMAL_FORMAT.format(getServerTPS());
+            this.uptime = getServerUptime();
+            this.memory = getMemoryUsage();
+            this.time = getCurrentTime();
+        }
+
+        private String get(String placeholder) {
+            switch (placeholder) {
+                case "%players%":
+                    return this.players;
+                case "%maxplayers%":
+                    return this.maxPlayers;
+                case "%tps%":
+                    return this.tps;
+                case "%uptime%":
+                    return this.uptime;
+                case "%memory%":
+                    return this.memory;
+                case "%server_time%":
+                    return this.time;
+                default:
+                    return null;
+            }
+        }
+    }
+}
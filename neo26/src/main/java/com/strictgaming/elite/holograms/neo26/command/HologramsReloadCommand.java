@@ -2,6 +2,7 @@ package com.strictgaming.elite.holograms.neo26.command;
 
 import com.strictgaming.elite.holograms.neo26.Neo26Holograms;
 import com.strictgaming.elite.holograms.neo26.hologram.HologramManager;
+import com.strictgaming.elite.holograms.neo26.util.UtilChatColour;
 
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
@@ -66,6 +67,9 @@ public class HologramsReloadCommand implements HologramsCommand.SubCommand {
             HologramManager.saveSync();
 
             // Reload from config (load() handles despawn + clear internally)
+            LOGGER.debug("Component cache before reload: {}", UtilChatColour.getCacheStats());
+            LOGGER.debug("Hologram footprint before reload: {}", HologramManager.getFootprint());
+            UtilChatColour.clearCache();
             HologramManager.load();
 
             source.sendSuccess(() -> Component.literal("Holograms reloaded successfully!"), false);
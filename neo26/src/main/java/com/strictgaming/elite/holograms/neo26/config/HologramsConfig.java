@@ -1,11 +1,11 @@
 package com.strictgaming.elite.holograms.neo26.config;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import com.strictgaming.elite.holograms.neo26.Neo26Holograms;
 import com.strictgaming.elite.holograms.neo26.hologram.HologramManager;
@@ -18,16 +18,20 @@ import com.mojang.logging.LogUtils;
 
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
-import java.lang.reflect.Type;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Configuration for holograms
@@ -35,13 +39,10 @@ import java.util.Map;
 public class HologramsConfig {
     
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .serializeNulls()
-            .create();
-    
     private Path configFile;
     private Path configDir;
+    // Set when the file couldn't be read completely, saving then would drop every hologram after the error
+    private volatile boolean readFailed = false;
     
     public HologramsConfig() throws IOException {
         setupDirectories();
@@ -67,79 +68,138 @@ public class HologramsConfig {
     }
     
     public void loadHologramsIntoManager() throws IOException {
+        readHolograms(HologramEntry::create);
+    }
+
+    /**
+     * Reads the holograms one at a time and hands each one to the consumer, so only one is held in memory at once
+     *
+     * @param consumer Called with each hologram in file order, on the calling thread
+     * @throws IOException If the file can't be read completely, it isn't saved over until it reads again
+     */
+    public void readHolograms(Consumer<HologramEntry> consumer) throws IOException {
         LOGGER.info("Loading holograms into manager from " + configFile.toAbsolutePath());
         
-        try (Reader reader = Files.newBufferedReader(configFile)) {
-            Type type = new TypeToken<Map<String, HologramData>>() {}.getType();
-            Map<String, HologramData> hologramDataMap = GSON.fromJson(reader, type);
-            
-            if (hologramDataMap == null) {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(configFile))) {
+            reader.setLenient(true);
+
+            if (isEmpty(reader)) {
                 LOGGER.warn("No holograms found in config for manager loading.");
+                this.readFailed = false;
                 return;
             }
-            
-            for (Map.Entry<String, HologramData> entry : hologramDataMap.entrySet()) {
-                String id = entry.getKey();
-                HologramData data = entry.getValue();
-                
-                List<Object> linesContent = new ArrayList<>();
-                if (data.lines != null) {
-                    for (JsonElement element : data.lines) {
-                        if (element.isJsonObject()) {
-                            // Animated line
-                            JsonObject obj = element.getAsJsonObject();
-                            if (obj.has("type") && "animated".equals(obj.get("type").getAsString())) {
-                                int interval = obj.has("interval") ? obj.get("interval").getAsInt() : 1;
-                                JsonArray framesArray = obj.getAsJsonArray("frames");
-                                List<String> frames = new ArrayList<>();
-                                for (JsonElement frame : framesArray) {
-                                    frames.add(frame.getAsString());
-                                }
-                                linesContent.add(new NeoForgeHologram.AnimatedLineData(frames, interval));
-                            } else {
-                                linesContent.add(element.toString()); // Fallback
-                            }
-                        } else {
-                            linesContent.add(element.getAsString());
-                        }
-                    }
-                }
-                
-                // Convert linesContent to String list for constructor, then set content
-                List<String> stringLines = new ArrayList<>();
-                for (Object obj : linesContent) {
-                     if (obj instanceof NeoForgeHologram.AnimatedLineData) {
-                         List<String> f = ((NeoForgeHologram.AnimatedLineData) obj).frames;
-                         stringLines.add(f.isEmpty() ? "" : f.get(0));
-                     } else {
-                         stringLines.add(obj.toString());
-                     }
+
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String id = reader.nextName();
+
+                try {
+                    consumer.accept(readHologram(reader, id));
+                } catch (IllegalStateException | NumberFormatException e) {
+                    // The reader is somewhere inside this hologram, there's no way to skip to the next one
+                    throw new IOException("Invalid hologram " + id, e);
                 }
-                
-                NeoForgeHologram hologram;
-                if (data.item != null && !data.item.isEmpty()) {
-                    LOGGER.info("Loading hologram {} as ItemHologram with item: {}", id, data.item);
-                    hologram = new ItemHologram(
-                        id, data.world, data.x, data.y, data.z, data.item, stringLines
-                    );
+            }
+
+            reader.endObject();
+            this.readFailed = false;
+        } catch (IOException | RuntimeException e) {
+            // Don't auto-reset or save over it, might lose data if just a bad read
+            this.readFailed = true;
+            throw e instanceof IOException io ? io : new IOException("Could not read holograms from " + configFile, e);
+        }
+    }
+
+    private void checkReadable() throws IOException {
+        if (this.readFailed) {
+            throw new IOException(configFile + " couldn't be read, not saving over it until it's fixed and reloaded");
+        }
+    }
+
+    private boolean isEmpty(JsonReader reader) throws IOException {
+        try {
+            JsonToken token = reader.peek();
+            return token == JsonToken.END_DOCUMENT || token == JsonToken.NULL;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+
+    private HologramEntry readHologram(JsonReader reader, String id) throws IOException {
+        HologramEntry entry = new HologramEntry(id);
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "world":
+                    entry.world = reader.nextString();
+                    break;
+                case "x":
+                    entry.x = reader.nextDouble();
+                    break;
+                case "y":
+                    entry.y = reader.nextDouble();
+                    break;
+                case "z":
+                    entry.z = reader.nextDouble();
+                    break;
+                case "item":
+                    entry.item = reader.nextString();
+                    break;
+                case "lines":
+                    readLines(reader, entry.linesContent);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+
+        reader.endObject();
+        return entry;
+    }
+
+    /**
+     * Reads the lines array into the line content, text lines as strings and animated lines as their frames
+     */
+    private void readLines(JsonReader reader, List<Object> linesContent) throws IOException {
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                // Line objects are a handful of frames, small enough to read as a tree
+                JsonObject obj = JsonParser.parseReader(reader).getAsJsonObject();
+
+                if (obj.has("type") && "animated".equals(obj.get("type").getAsString())) {
+                    // Animated line
+                    int interval = obj.has("interval") ? obj.get("interval").getAsInt() : 1;
+                    List<String> frames = new ArrayList<>();
+                    for (JsonElement frame : obj.getAsJsonArray("frames")) {
+                        frames.add(frame.getAsString());
+                    }
+                    linesContent.add(new NeoForgeHologram.AnimatedLineData(frames, interval));
                 } else {
-                    LOGGER.info("Loading hologram {} as standard NeoForgeHologram (no item data found)", id);
-                    hologram = new NeoForgeHologram(
-                        id, data.world, data.x, data.y, data.z, stringLines
-                    );
+                    linesContent.add(obj.toString()); // Fallback
                 }
-                
-                // Restore complex content
-                hologram.setLinesContent(linesContent);
-                
-                // Don't spawn yet - let the HologramManager handle it
-                LOGGER.debug("Loaded hologram into manager: " + id);
-                HologramManager.addHologram(hologram);
+            } else if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                linesContent.add("null");
+            } else {
+                String line = reader.nextString();
+                linesContent.add(line);
             }
-        } catch (Exception e) {
-            LOGGER.error("Error loading holograms into manager from config", e);
-            // Files.writeString(configFile, "{}"); // Don't auto-reset, might lose data if just a bad read
         }
+
+        reader.endArray();
     }
     
     public void save() throws IOException {
@@ -147,71 +207,259 @@ public class HologramsConfig {
     }
     
     public void saveHologramsFromManager(Map<String, Hologram> holograms) throws IOException {
-        LOGGER.info("Saving {} holograms from manager to {}", holograms.size(), configFile.toAbsolutePath());
-        
-        Map<String, HologramData> hologramDataMap = new HashMap<>();
-        
-        for (Map.Entry<String, Hologram> entry : holograms.entrySet()) {
-            String id = entry.getKey();
-            Hologram hologram = entry.getValue();
-            if (hologram instanceof ScoreboardHologram) {
-                continue;
+        saveHologramsFromManager(holograms, Collections.emptyList());
+    }
+
+    /**
+     * Saves every hologram in the manager along with the ones that were read but haven't been created yet
+     *
+     * @param holograms The holograms in the manager
+     * @param pending The holograms still waiting to be created by a staged load
+     * @throws IOException If the file can't be written
+     */
+    public void saveHologramsFromManager(Map<String, Hologram> holograms, Collection<HologramEntry> pending) throws IOException {
+        checkReadable();
+        LOGGER.info("Saving {} holograms from manager to {}", holograms.size() + pending.size(), configFile.toAbsolutePath());
+
+        write(writer -> {
+            for (Map.Entry<String, Hologram> entry : holograms.entrySet()) {
+                writeHologram(writer, entry.getKey(), entry.getValue());
             }
-            
-            HologramData data = new HologramData();
-            data.world = hologram.getWorld();
-            data.x = hologram.getX();
-            data.y = hologram.getY();
-            data.z = hologram.getZ();
-            
-            if (hologram instanceof ItemHologram) {
-                data.item = ((ItemHologram) hologram).getItemId();
-                LOGGER.debug("Saving hologram {} as ItemHologram with item: {}", id, data.item);
-            } else {
-                LOGGER.debug("Saving hologram {} as standard NeoForgeHologram", id);
+
+            for (HologramEntry entry : pending) {
+                if (!holograms.containsKey(entry.id)) {
+                    writeHologram(writer, entry.id, entry.world, entry.x, entry.y, entry.z, entry.item, entry.linesContent);
+                }
             }
-            
-            data.lines = new ArrayList<>();
-            if (hologram instanceof NeoForgeHologram) {
-                List<Object> content = ((NeoForgeHologram) hologram).getLinesContent();
-                for (Object lineObj : content) {
-                    if (lineObj instanceof NeoForgeHologram.AnimatedLineData) {
-                        NeoForgeHologram.AnimatedLineData anim = (NeoForgeHologram.AnimatedLineData) lineObj;
-                        JsonObject json = new JsonObject();
-                        json.addProperty("type", "animated");
-                        json.addProperty("interval", anim.interval);
-                        JsonArray frames = new JsonArray();
-                        for (String f : anim.frames) frames.add(f);
-                        json.add("frames", frames);
-                        data.lines.add(json);
-                    } else {
-                        // Use Gson to create JsonPrimitive (String)
-                        data.lines.add(new com.google.gson.JsonPrimitive(lineObj.toString()));
+        });
+    }
+
+    /**
+     * Saves only the given holograms. Every other hologram is copied over from the current file as it is, so a
+     * save only has to serialize the holograms that changed. Ids that are no longer in the manager are removed
+     * from the file
+     *
+     * @param holograms The holograms in the manager
+     * @param dirty The ids of the holograms that changed
+     * @param pending The holograms still waiting to be created by a staged load, written if the file has to be
+     *                rewritten from the manager, or null if the load is still reading them
+     * @throws IOException If the file can't be written
+     */
+    public void saveDirtyHolograms(Map<String, Hologram> holograms, Set<String> dirty, Collection<HologramEntry> pending) throws IOException {
+        checkReadable();
+
+        try {
+            write(writer -> {
+                Set<String> remaining = new HashSet<>(dirty);
+
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(configFile))) {
+                    reader.setLenient(true);
+
+                    if (!isEmpty(reader)) {
+                        reader.beginObject();
+
+                        while (reader.hasNext()) {
+                            String id = reader.nextName();
+
+                            if (remaining.remove(id)) {
+                                reader.skipValue();
+                                writeHologram(writer, id, holograms.get(id));
+                            } else {
+                                writer.name(id);
+                                copyValue(reader, writer);
+                            }
+                        }
+
+                        reader.endObject();
                     }
                 }
-            } else {
-                // Fallback for other implementations
-                for (String line : hologram.getLines()) {
-                    data.lines.add(new com.google.gson.JsonPrimitive(line));
+
+                // New holograms go at the end
+                for (String id : remaining) {
+                    writeHologram(writer, id, holograms.get(id));
                 }
+            });
+        } catch (IOException | IllegalStateException e) {
+            // Without the holograms still being read, writing from the manager would drop them
+            if (pending == null) {
+                throw new IOException("Could not update holograms in place while they're still being read", e);
             }
-            
-            hologramDataMap.put(id, data);
+
+            // The current file couldn't be read, write everything from the manager instead
+            LOGGER.warn("Could not update holograms in place, saving all of them", e);
+            saveHologramsFromManager(holograms, pending);
         }
-        
-        try (Writer writer = Files.newBufferedWriter(configFile)) {
-            GSON.toJson(hologramDataMap, writer);
+    }
+
+    private void writeHologram(JsonWriter writer, String id, Hologram hologram) throws IOException {
+        if (hologram == null || hologram instanceof ScoreboardHologram) {
+            return;
+        }
+
+        String item = null;
+
+        if (hologram instanceof ItemHologram) {
+            item = ((ItemHologram) hologram).getItemId();
+            LOGGER.debug("Saving hologram {} as ItemHologram with item: {}", id, item);
+        } else {
+            LOGGER.debug("Saving hologram {} as standard NeoForgeHologram", id);
+        }
+
+        if (hologram instanceof NeoForgeHologram) {
+            writeHologram(writer, id, hologram.getWorld(), hologram.getX(), hologram.getY(), hologram.getZ(), item,
+                    ((NeoForgeHologram) hologram).getLinesContent());
+        } else {
+            // Fallback for other implementations
+            writeHologram(writer, id, hologram.getWorld(), hologram.getX(), hologram.getY(), hologram.getZ(), item,
+                    new ArrayList<>(hologram.getLines()));
+        }
+    }
+
+    private void writeHologram(JsonWriter writer, String id, String world, double x, double y, double z, String item,
+                               List<Object> content) throws IOException {
+        writer.name(id);
+        writer.beginObject();
+        writer.name("world").value(world);
+        writer.name("x").value(x);
+        writer.name("y").value(y);
+        writer.name("z").value(z);
+        writer.name("lines");
+        writer.beginArray();
+
+        for (Object lineObj : content) {
+            if (lineObj instanceof NeoForgeHologram.AnimatedLineData) {
+                NeoForgeHologram.AnimatedLineData anim = (NeoForgeHologram.AnimatedLineData) lineObj;
+                writer.beginObject();
+                writer.name("type").value("animated");
+                writer.name("interval").value(anim.interval);
+                writer.name("frames");
+                writer.beginArray();
+                for (String f : anim.frames) writer.value(f);
+                writer.endArray();
+                writer.endObject();
+            } else {
+                writer.value(String.valueOf(lineObj));
+            }
+        }
+
+        writer.endArray();
+
+        if (item != null) {
+            writer.name("item").value(item);
+        } else {
+            writer.name("item").nullValue();
+        }
+
+        writer.endObject();
+    }
+
+    /**
+     * Copies the next value from the reader to the writer token by token
+     */
+    private void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copyValue(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copyValue(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+                break;
+            case STRING:
+                writer.value(reader.nextString());
+                break;
+            case NUMBER:
+                // Keeps the number exactly as it was written
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected " + reader.peek() + " in " + configFile);
+        }
+    }
+
+    /**
+     * Writes the holograms to a temporary file and moves it over the real one, so a crash mid-write can't leave
+     * a truncated holograms.json behind
+     */
+    private void write(HologramWriter body) throws IOException {
+        Path tempFile = configFile.resolveSibling(configFile.getFileName() + ".tmp");
+
+        try {
+            try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(tempFile))) {
+                writer.setIndent("  ");
+                writer.setSerializeNulls(true);
+                writer.beginObject();
+                body.write(writer);
+                writer.endObject();
+            }
+
+            try {
+                Files.move(tempFile, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, configFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
             LOGGER.debug("Successfully saved holograms from manager.");
         } catch (IOException e) {
             LOGGER.error("Failed to save holograms from manager to config", e);
             throw e;
         }
     }
-    
-    private static class HologramData {
-        String world;
-        double x, y, z;
-        List<JsonElement> lines;
-        String item;
+
+    private interface HologramWriter {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * A hologram as it was read from the file, before it's created. Creating it registers it with the manager
+     */
+    public static class HologramEntry {
+        public final String id;
+        public String world;
+        public double x, y, z;
+        public String item;
+        public final List<Object> linesContent = new ArrayList<>();
+
+        private HologramEntry(String id) {
+            this.id = id;
+        }
+
+        public NeoForgeHologram create() {
+            NeoForgeHologram hologram;
+            if (item != null && !item.isEmpty()) {
+                LOGGER.info("Loading hologram {} as ItemHologram with item: {}", id, item);
+                hologram = new ItemHologram(
+                    id, world, x, y, z, item, linesContent
+                );
+            } else {
+                LOGGER.info("Loading hologram {} as standard NeoForgeHologram (no item data found)", id);
+                hologram = new NeoForgeHologram(
+                    id, world, x, y, z, linesContent
+                );
+            }
+            
+            // The constructor registers it with the manager, don't spawn yet - let the HologramManager handle it
+            LOGGER.debug("Loaded hologram into manager: " + id);
+            return hologram;
+        }
     }
 }
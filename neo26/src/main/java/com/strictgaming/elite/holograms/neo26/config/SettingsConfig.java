@@ -0,0 +1,168 @@
+package com.strictgaming.elite.holograms.neo26.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * General settings for the mod, stored next to the hologram data in settings.json
+ */
+public class SettingsConfig {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private double visibilityMoveThreshold = 4.0;
+    private int placeholderRefreshTicks = 1;
+    private int componentCacheSize = 2048;
+    private long saveWindowMillis = 1000L;
+    private int loadSpawnBudget = 64;
+    private String scoreboardUpdates = "interval";
+    private long tickBudgetNanos = 2000000L;
+
+    /**
+     * Loads the settings from the settings file, writing the defaults if it does not exist yet
+     *
+     * @throws IOException If there's an error reading or writing the file
+     */
+    public void load() throws IOException {
+        Path configDir = ServerLifecycleHooks.getCurrentServer().getServerDirectory()
+                .resolve("config").resolve("eliteholograms");
+
+        if (!Files.exists(configDir)) {
+            Files.createDirectories(configDir);
+        }
+
+        Path settingsFile = configDir.resolve("settings.json");
+
+        if (!Files.exists(settingsFile)) {
+            save(settingsFile);
+            return;
+        }
+
+        try {
+            JsonObject json = GSON.fromJson(Files.readString(settingsFile), JsonObject.class);
+
+            if (json != null && json.has("visibility_move_threshold")) {
+                this.visibilityMoveThreshold = Math.max(0.0, json.get("visibility_move_threshold").getAsDouble());
+            }
+
+            if (json != null && json.has("placeholder_refresh_ticks")) {
+                this.placeholderRefreshTicks = Math.max(1, json.get("placeholder_refresh_ticks").getAsInt());
+            }
+
+            if (json != null && json.has("component_cache_size")) {
+                this.componentCacheSize = Math.max(1, json.get("component_cache_size").getAsInt());
+            }
+
+            if (json != null && json.has("save_window_ms")) {
+                this.saveWindowMillis = Math.max(0L, json.get("save_window_ms").getAsLong());
+            }
+
+            if (json != null && json.has("load_spawn_budget")) {
+                this.loadSpawnBudget = Math.max(1, json.get("load_spawn_budget").getAsInt());
+            }
+
+            if (json != null && json.has("scoreboard_updates")) {
+                this.scoreboardUpdates = json.get("scoreboard_updates").getAsString().toLowerCase();
+            }
+
+            if (json != null && json.has("tick_budget_ns")) {
+                this.tickBudgetNanos = Math.max(0L, json.get("tick_budget_ns").getAsLong());
+            }
+
+            LOGGER.info("Loaded settings: visibility_move_threshold={}, placeholder_refresh_ticks={}, component_cache_size={}, save_window_ms={}, load_spawn_budget={}, scoreboard_updates={}, tick_budget_ns={}",
+                    this.visibilityMoveThreshold, this.placeholderRefreshTicks, this.componentCacheSize, this.saveWindowMillis, this.loadSpawnBudget, this.scoreboardUpdates, this.tickBudgetNanos);
+        } catch (Exception e) {
+            LOGGER.error("Error loading settings, using defaults", e);
+        }
+    }
+
+    private void save(Path settingsFile) throws IOException {
+        JsonObject json = new JsonObject();
+        json.addProperty("visibility_move_threshold", this.visibilityMoveThreshold);
+        json.addProperty("placeholder_refresh_ticks", this.placeholderRefreshTicks);
+        json.addProperty("component_cache_size", this.componentCacheSize);
+        json.addProperty("save_window_ms", this.saveWindowMillis);
+        json.addProperty("load_spawn_budget", this.loadSpawnBudget);
+        json.addProperty("scoreboard_updates", this.scoreboardUpdates);
+        json.addProperty("tick_budget_ns", this.tickBudgetNanos);
+
+        Files.writeString(settingsFile, GSON.toJson(json));
+        LOGGER.info("Created default settings file");
+    }
+
+    /**
+     * Gets how far a player has to move, in blocks, before hologram visibility is re-evaluated for them.
+     * Crossing into another chunk or dimension always triggers a re-evaluation
+     *
+     * @return The threshold in blocks
+     */
+    public double getVisibilityMoveThreshold() {
+        return this.visibilityMoveThreshold;
+    }
+
+    /**
+     * Gets how many ticks server placeholders like %players% and %tps% are reused for before being recomputed
+     *
+     * @return The refresh interval in ticks
+     */
+    public int getPlaceholderRefreshTicks() {
+        return this.placeholderRefreshTicks;
+    }
+
+    /**
+     * Gets how many parsed text components are cached, so unchanged hologram text isn't parsed again
+     *
+     * @return The maximum number of cached components
+     */
+    public int getComponentCacheSize() {
+        return this.componentCacheSize;
+    }
+
+    /**
+     * Gets how long hologram edits are collected for before they're written to holograms.json
+     *
+     * @return The save window in milliseconds
+     */
+    public long getSaveWindowMillis() {
+        return this.saveWindowMillis;
+    }
+
+    /**
+     * Gets how many holograms are created per tick while holograms are loaded at server start
+     *
+     * @return The number of holograms per tick
+     */
+    public int getLoadSpawnBudget() {
+        return this.loadSpawnBudget;
+    }
+
+    /**
+     * Gets whether scoreboard holograms update when the scoreboard changes, "events", instead of on their update
+     * interval, "interval"
+     *
+     * @return true if scoreboard holograms update when the scoreboard changes
+     */
+    public boolean isScoreboardEventDriven() {
+        return "events".equals(this.scoreboardUpdates);
+    }
+
+    /**
+     * Gets how long the hologram work of a server tick may take before the rest is carried over to the next tick
+     *
+     * @return The budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return this.tickBudgetNanos;
+    }
+}
@@ -0,0 +1,185 @@
+package com.strictgaming.elite.holograms.neo26.hologram;
+
+import com.strictgaming.elite.holograms.neo26.hologram.entity.AnimatedHologramLine;
+import com.strictgaming.elite.holograms.neo26.hologram.implementation.NeoForgeHologram;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel that flips the frames of animated lines. Each line sits in the slot of the tick its next frame is
+ * due, so a tick only touches the lines in its own slot instead of every animated line on the server. Lines due further
+ * away than one turn of the wheel wait in their slot for as many turns as it takes.
+ * Frames follow the wheel's clock instead of being stepped one by one, so the lines of a hologram nobody can see are
+ * taken off the wheel altogether. Once a player is shown the hologram again its lines jump straight to the frame the
+ * clock is at and go back on the wheel.
+ */
+public final class AnimationWheel {
+
+    private static final int SLOTS = 1024;
+    private static final int MASK = SLOTS - 1;
+
+    private static final List<List<Entry>> WHEEL = new ArrayList<>(SLOTS);
+    private static final Queue<Entry> INBOX = new ConcurrentLinkedQueue<>();
+    private static final Map<AnimatedHologramLine, Entry> PARKED = new ConcurrentHashMap<>();
+
+    private static volatile long currentTick = 0L;
+    private static int scheduled = 0;
+
+    static {
+        for (int i = 0; i < SLOTS; i++) {
+            WHEEL.add(new ArrayList<>());
+        }
+    }
+
+    private AnimationWheel() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Starts animating the line, its first frame change is one interval from the next tick. Can be called from
+     * any thread. The line is dropped from the wheel once it's released
+     *
+     * @param hologram The hologram the line belongs to
+     * @param line The line
+     */
+    public static void register(NeoForgeHologram hologram, AnimatedHologramLine line) {
+        if (line.getFrames().size() < 2) {
+            return;
+        }
+
+        INBOX.offer(new Entry(hologram, line));
+    }
+
+    /**
+     * Shows the frame the wheel's clock is at and puts the line back on the wheel if it was taken off while
+     * nobody could see it. Called right before the line is spawned for a player, on the server thread
+     *
+     * @param line The line
+     */
+    public static void resume(AnimatedHologramLine line) {
+        line.showFrameAt(currentTick);
+        Entry entry = PARKED.remove(line);
+
+        if (entry != null) {
+            INBOX.offer(entry);
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick and queues a frame change in the {@link HologramScheduler} for every line
+     * due this tick. Called every tick on the server thread, before the scheduler runs
+     */
+    public static void tick() {
+        long tick = ++currentTick;
+        Entry entry;
+
+        while ((entry = INBOX.poll()) != null) {
+            entry.line.start(tick);
+            scheduleOrPark(entry);
+        }
+
+        // Lines released while parked are never resumed, so they're dropped once every turn of the wheel
+        if ((tick & MASK) == 0) {
+            PARKED.values().removeIf(parked -> parked.line.isReleased());
+        }
+
+        List<Entry> slot = WHEEL.get((int) (tick & MASK));
+        int i = 0;
+
+        while (i < slot.size()) {
+            entry = slot.get(i);
+
+            if (!entry.line.isReleased() && entry.dueTick > tick) {
+                i++;
+                continue;
+            }
+
+            // Order within a slot doesn't matter, so the last entry takes this one's place
+            slot.set(i, slot.get(slot.size() - 1));
+            slot.remove(slot.size() - 1);
+            scheduled--;
+
+            if (!entry.line.isReleased()) {
+                Entry due = entry;
+                HologramScheduler.schedule(HologramScheduler.Category.ANIMATION, due.line,
+                        due.hologram.getNearestViewerDistance(), () -> flip(due));
+            }
+        }
+    }
+
+    /**
+     * Gets how many lines are waiting in the wheel for their next frame
+     *
+     * @return The number of lines
+     */
+    public static int getScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Gets how many lines are off the wheel because nobody can see them
+     *
+     * @return The number of lines
+     */
+    public static int getParked() {
+        return PARKED.size();
+    }
+
+    private static void flip(Entry entry) {
+        if (entry.line.isReleased()) {
+            return;
+        }
+
+        List<ServerPlayer> viewers = entry.hologram.getViewers();
+
+        if (viewers.isEmpty()) {
+            park(entry);
+            return;
+        }
+
+        if (entry.line.showFrameAt(currentTick)) {
+            for (ServerPlayer player : viewers) {
+                entry.line.updateForPlayer(player, false);
+            }
+        }
+
+        schedule(entry);
+    }
+
+    private static void scheduleOrPark(Entry entry) {
+        if (entry.hologram.getViewers().isEmpty()) {
+            park(entry);
+        } else {
+            schedule(entry);
+        }
+    }
+
+    private static void schedule(Entry entry) {
+        entry.dueTick = entry.line.getNextFrameTick(currentTick);
+        WHEEL.get((int) (entry.dueTick & MASK)).add(entry);
+        scheduled++;
+    }
+
+    private static void park(Entry entry) {
+        PARKED.put(entry.line, entry);
+    }
+
+    private static final class Entry {
+
+        private final NeoForgeHologram hologram;
+        private final AnimatedHologramLine line;
+        private long dueTick;
+
+        private Entry(NeoForgeHologram hologram, AnimatedHologramLine line) {
+            this.hologram = hologram;
+            this.line = line;
+        }
+    }
+}
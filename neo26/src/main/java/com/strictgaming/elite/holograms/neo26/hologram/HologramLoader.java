@@ -0,0 +1,385 @@
+package com.strictgaming.elite.holograms.neo26.hologram;
+
+import com.strictgaming.elite.holograms.neo26.config.HologramsConfig;
+import com.strictgaming.elite.holograms.neo26.config.HologramsConfig.HologramEntry;
+import com.strictgaming.elite.holograms.neo26.hologram.implementation.NeoForgeHologram;
+import com.strictgaming.elite.holograms.neo26.util.UtilChatColour;
+
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads holograms.json in stages so a large file doesn't stall the server. The file is read on a worker thread and
+ * each batch of holograms is validated, and has its text parsed into the component cache, on a worker pool. The
+ * server thread then resolves every world once, orders the holograms so the ones closest to an online player or the
+ * world spawn come first, and creates a limited number of them each tick
+ */
+public class HologramLoader {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int BATCH_SIZE = 256;
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "EliteHolograms-Loader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HologramsConfig config;
+    private final int budget;
+    private final long startNanos = System.nanoTime();
+    private final Deque<HologramEntry> queue = new ArrayDeque<>();
+    private final Set<String> removed = new HashSet<>();
+    private CompletableFuture<List<HologramEntry>> parsed;
+    private boolean ordered = false;
+    private volatile boolean cancelled = false;
+    private volatile long readNanos = 0L;
+    private long firstTickNanos = -1L;
+    private long longestTickNanos = 0L;
+    private int ticks = 0;
+    private int created = 0;
+
+    public HologramLoader(HologramsConfig config, int budget) {
+        this.config = config;
+        this.budget = Math.max(1, budget);
+    }
+
+    /**
+     * Starts reading and validating the holograms on the worker pool
+     */
+    public void start() {
+        this.parsed = CompletableFuture.supplyAsync(this::read, WORKERS)
+                .thenCompose(batches -> CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                        .thenApply(ignored -> {
+                            List<HologramEntry> entries = new ArrayList<>();
+                            for (CompletableFuture<List<HologramEntry>> batch : batches) {
+                                entries.addAll(batch.join());
+                            }
+                            this.readNanos = System.nanoTime() - this.startNanos;
+                            LOGGER.info("Read and validated {} holograms in {} ms on {} threads",
+                                    entries.size(), TimeUnit.NANOSECONDS.toMillis(this.readNanos), THREADS);
+                            return entries;
+                        }))
+                .exceptionally(e -> {
+                    LOGGER.error("Error reading holograms from config", e);
+                    return Collections.emptyList();
+                });
+    }
+
+    private List<CompletableFuture<List<HologramEntry>>> read() {
+        List<CompletableFuture<List<HologramEntry>>> batches = new ArrayList<>();
+        List<HologramEntry> batch = new ArrayList<>(BATCH_SIZE);
+
+        try {
+            this.config.readHolograms(entry -> {
+                batch.add(entry);
+
+                if (batch.size() >= BATCH_SIZE) {
+                    List<HologramEntry> full = new ArrayList<>(batch);
+                    batches.add(CompletableFuture.supplyAsync(() -> validate(full), WORKERS));
+                    batch.clear();
+                }
+            });
+        } catch (Exception e) {
+            // The holograms read before the error are still created, but the config isn't saved over
+            LOGGER.error("Error reading holograms from config, the ones after the error aren't loaded and it won't be saved until it's fixed and reloaded", e);
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(CompletableFuture.supplyAsync(() -> validate(batch), WORKERS));
+        }
+
+        return batches;
+    }
+
+    private static List<HologramEntry> validate(List<HologramEntry> batch) {
+        List<HologramEntry> valid = new ArrayList<>(batch.size());
+
+        for (HologramEntry entry : batch) {
+            if (entry.id.isEmpty()) {
+                LOGGER.warn("Skipping hologram with an empty id");
+                continue;
+            }
+
+            // JsonWriter refuses to write these, so they'd break every save after this
+            if (!Double.isFinite(entry.x) || !Double.isFinite(entry.y) || !Double.isFinite(entry.z)) {
+                LOGGER.warn("Skipping hologram {}, its position ({}, {}, {}) isn't valid", entry.id, entry.x, entry.y, entry.z);
+                continue;
+            }
+
+            // Parse the text now so the server thread builds the lines from the component cache
+            for (Object line : entry.linesContent) {
+                if (line instanceof NeoForgeHologram.AnimatedLineData animated) {
+                    animated.frames.forEach(HologramLoader::parseText);
+                } else {
+                    parseText(String.valueOf(line));
+                }
+            }
+
+            valid.add(entry);
+        }
+
+        return valid;
+    }
+
+    private static void parseText(String text) {
+        // Placeholders are resolved on the server thread, so text that has them is parsed there
+        if (text.indexOf('%') < 0) {
+            UtilChatColour.parseCached(text);
+        }
+    }
+
+    /**
+     * Orders the holograms by how close they are to an online player, or to the spawn of their world when nobody is
+     * in it. Worlds and the positions to measure from are looked up once per world, not once per hologram
+     */
+    private void order(MinecraftServer server, List<HologramEntry> entries) {
+        Map<String, ServerLevel> worlds = new HashMap<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            worlds.put(level.dimension().identifier().toString(), level);
+        }
+
+        Map<ServerLevel, List<Vec3>> anchors = new HashMap<>();
+        Map<String, HologramEntry> unique = new LinkedHashMap<>();
+        Map<HologramEntry, Double> distances = new HashMap<>();
+
+        for (HologramEntry entry : entries) {
+            if (unique.put(entry.id, entry) != null) {
+                LOGGER.warn("Duplicate hologram id {} in config, using the last one", entry.id);
+            }
+        }
+
+        for (HologramEntry entry : unique.values()) {
+            ServerLevel level = entry.world == null || entry.world.isEmpty() ? server.overworld() : worlds.get(entry.world);
+
+            if (level == null) {
+                // Same fallback as NeoForgeHologram, only warned about once per world
+                if (worlds.put(entry.world, server.overworld()) == null) {
+                    LOGGER.warn("World {} isn't loaded, its holograms will be shown in the overworld", entry.world);
+                }
+                level = server.overworld();
+            }
+
+            List<Vec3> points = anchors.computeIfAbsent(level, HologramLoader::getAnchors);
+            double closest = Double.MAX_VALUE;
+
+            for (Vec3 point : points) {
+                closest = Math.min(closest, point.distanceToSqr(entry.x, entry.y, entry.z));
+            }
+
+            distances.put(entry, closest);
+        }
+
+        List<HologramEntry> sorted = new ArrayList<>(unique.values());
+        sorted.sort(Comparator.comparingDouble(distances::get));
+
+        synchronized (this) {
+            for (HologramEntry entry : sorted) {
+                if (!this.removed.contains(entry.id)) {
+                    this.queue.add(entry);
+                }
+            }
+            this.ordered = true;
+        }
+    }
+
+    private static List<Vec3> getAnchors(ServerLevel level) {
+        List<Vec3> points = new ArrayList<>();
+
+        for (ServerPlayer player : level.players()) {
+            points.add(player.position());
+        }
+
+        if (points.isEmpty()) {
+            points.add(Vec3.atCenterOf(level.getRespawnData().pos()));
+        }
+
+        return points;
+    }
+
+    /**
+     * Creates the next holograms once reading has finished. Called every tick on the server thread
+     *
+     * @param server The server
+     * @return true once every hologram has been created or the load was cancelled
+     */
+    public boolean tick(MinecraftServer server) {
+        if (this.cancelled) {
+            return true;
+        }
+
+        if (!this.parsed.isDone()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        this.createNext(server, this.budget);
+        this.recordTick(System.nanoTime() - start);
+        return this.isDone();
+    }
+
+    /**
+     * Waits for reading to finish and creates every remaining hologram right away
+     *
+     * @param server The server
+     */
+    public void finish(MinecraftServer server) {
+        long start = System.nanoTime();
+        this.parsed.join();
+        this.createNext(server, Integer.MAX_VALUE);
+        this.recordTick(System.nanoTime() - start);
+    }
+
+    private void createNext(MinecraftServer server, int limit) {
+        if (!this.ordered) {
+            this.order(server, this.parsed.join());
+        }
+
+        for (int i = 0; i < limit && !this.cancelled; i++) {
+            HologramEntry entry;
+
+            synchronized (this) {
+                entry = this.queue.peek();
+            }
+
+            if (entry == null) {
+                break;
+            }
+
+            try {
+                HologramManager.createLoaded(entry);
+                this.created++;
+            } catch (Exception e) {
+                LOGGER.error("Failed to create hologram {}", entry.id, e);
+            }
+
+            // Only dropped from the queue once it's in the manager, so a save in between still writes it
+            synchronized (this) {
+                this.queue.remove(entry);
+            }
+        }
+    }
+
+    private void recordTick(long nanos) {
+        if (this.firstTickNanos < 0) {
+            this.firstTickNanos = nanos;
+        }
+
+        this.longestTickNanos = Math.max(this.longestTickNanos, nanos);
+        this.ticks++;
+
+        if (this.isDone()) {
+            LOGGER.info("Loaded {} holograms in {} ms (read in {} ms, created over {} ticks, first tick {} ms, longest tick {} ms)",
+                    this.created,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(this.readNanos),
+                    this.ticks,
+                    TimeUnit.NANOSECONDS.toMillis(this.firstTickNanos),
+                    TimeUnit.NANOSECONDS.toMillis(this.longestTickNanos));
+        }
+    }
+
+    private synchronized boolean isDone() {
+        return this.cancelled || (this.ordered && this.queue.isEmpty());
+    }
+
+    /**
+     * Stops creating holograms, used when a reload replaces this load
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Waits for reading to finish, so {@link #getPending()} can tell which holograms are still waiting. Must not be
+     * called while holding the manager's save lock
+     */
+    public void awaitRead() {
+        if (!this.cancelled) {
+            this.parsed.join();
+        }
+    }
+
+    /**
+     * Drops a hologram that hasn't been created yet. Never waits for reading, a hologram that may not have been
+     * read yet is remembered and skipped once it is
+     *
+     * @param id The hologram's id
+     * @return true if the hologram was still waiting to be created, or reading hasn't finished and it may be
+     */
+    public boolean remove(String id) {
+        if (this.cancelled) {
+            return false;
+        }
+
+        List<HologramEntry> entries = this.parsed.getNow(null);
+
+        synchronized (this) {
+            if (this.ordered) {
+                return this.queue.removeIf(entry -> entry.id.equals(id));
+            }
+
+            if (entries == null) {
+                this.removed.add(id);
+                return true;
+            }
+
+            return entries.stream().anyMatch(entry -> entry.id.equals(id)) && this.removed.add(id);
+        }
+    }
+
+    /**
+     * Gets the holograms that haven't been created yet, so a full save doesn't drop them. Never waits for reading,
+     * see {@link #awaitRead()}
+     *
+     * @return The holograms waiting to be created, or null if reading hasn't finished yet
+     */
+    public List<HologramEntry> getPending() {
+        if (this.cancelled) {
+            return Collections.emptyList();
+        }
+
+        List<HologramEntry> entries = this.parsed.getNow(null);
+
+        if (entries == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (this.ordered) {
+                return new ArrayList<>(this.queue);
+            }
+
+            List<HologramEntry> pending = new ArrayList<>(entries.size());
+            for (HologramEntry entry : entries) {
+                if (!this.removed.contains(entry.id)) {
+                    pending.add(entry);
+                }
+            }
+            return pending;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.strictgaming.elite.holograms.neo26.hologram;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.PlayerScoreEntry;
+import net.minecraft.world.scores.Scoreboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks the scores of a scoreboard objective for {@link ScoreboardSnapshots}. Only the best scores are kept while
+ * walking the objective, in a min-heap the size of the ranking, so nothing is copied into a map or sorted per score
+ */
+public final class ScoreboardRanking {
+
+    // The most entries a scoreboard hologram shows, every ranking is this long so any hologram can use it
+    public static final int MAX_COUNT = 10;
+
+    // Best score first, equal scores in name order so they don't swap places between refreshes
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.score).reversed()
+            .thenComparing(entry -> entry.playerName);
+
+    private ScoreboardRanking() {
+    }
+
+    /**
+     * Walks every score of the objective once, keeping the best ones in a min-heap
+     */
+    public static List<Entry> rank(MinecraftServer server, Objective objective, int count) {
+        Scoreboard scoreboard = server.getScoreboard();
+        // The worst kept entry is at the head, so a better score only has to beat that one
+        PriorityQueue<Entry> heap = new PriorityQueue<>(count + 1, ORDER.reversed());
+
+        // listPlayerScores returns ALL entries for the objective, including offline players
+        for (PlayerScoreEntry entry : scoreboard.listPlayerScores(objective)) {
+            String owner = entry.owner();
+            if (owner != null && !owner.isEmpty() && !entry.isHidden()) {
+                offer(heap, count, owner, entry.value());
+            }
+        }
+
+        // Fallback: online players only if listPlayerScores is empty (e.g. objective has no data yet)
+        if (heap.isEmpty()) {
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                if (player == null) continue;
+                try {
+                    offer(heap, count, player.getScoreboardName(), scoreboard.getOrCreatePlayerScore(player, objective).get());
+                } catch (Throwable ignored) {}
+            }
+        }
+
+        List<Entry> top = new ArrayList<>(heap);
+        top.sort(ORDER);
+        return Collections.unmodifiableList(top);
+    }
+
+    private static void offer(PriorityQueue<Entry> heap, int count, String owner, int value) {
+        if (heap.size() < count) {
+            heap.add(new Entry(owner, value));
+            return;
+        }
+
+        Entry worst = heap.peek();
+        if (value > worst.score || (value == worst.score && owner.compareTo(worst.playerName) < 0)) {
+            heap.poll();
+            heap.add(new Entry(owner, value));
+        }
+    }
+
+    public static final class Entry {
+        public final String playerName;
+        public final int score;
+
+        public Entry(String playerName, int score) {
+            this.playerName = playerName;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.strictgaming.elite.holograms.neo26.hologram;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The players a hologram is currently shown to, stored as a bitset of {@link PlayerSessionIndex} indices.
+ * Membership checks are a single bit test and clearing or copying the whole set works a word at a time.
+ * Safe to use from multiple threads.
+ */
+public class ViewerSet {
+
+    private final BitSet viewers = new BitSet();
+
+    /**
+     * Adds the player to the set. A player without a {@link PlayerSessionIndex} index, one that already left,
+     * isn't added
+     *
+     * @param player The player
+     * @return true if the player wasn't in the set before
+     */
+    public boolean add(ServerPlayer player) {
+        int index = PlayerSessionIndex.lookup(player);
+
+        if (index < 0) {
+            return false;
+        }
+
+        synchronized (this.viewers) {
+            if (this.viewers.get(index)) {
+                return false;
+            }
+
+            this.viewers.set(index);
+            return true;
+        }
+    }
+
+    /**
+     * Removes the player from the set
+     *
+     * @param player The player
+     * @return true if the player was in the set
+     */
+    public boolean remove(ServerPlayer player) {
+        int index = PlayerSessionIndex.getIndex(player);
+
+        if (index < 0) {
+            return false;
+        }
+
+        synchronized (this.viewers) {
+            if (!this.viewers.get(index)) {
+                return false;
+            }
+
+            this.viewers.clear(index);
+            return true;
+        }
+    }
+
+    public boolean contains(ServerPlayer player) {
+        int index = PlayerSessionIndex.getIndex(player);
+
+        if (index < 0) {
+            return false;
+        }
+
+        synchronized (this.viewers) {
+            return this.viewers.get(index);
+        }
+    }
+
+    public void clear() {
+        synchronized (this.viewers) {
+            this.viewers.clear();
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (this.viewers) {
+            return this.viewers.isEmpty();
+        }
+    }
+
+    public int size() {
+        synchronized (this.viewers) {
+            return this.viewers.cardinality();
+        }
+    }
+
+    /**
+     * Gets a snapshot of the online players in the set, safe to iterate while the set changes
+     *
+     * @return The players
+     */
+    public List<ServerPlayer> getPlayers() {
+        BitSet snapshot;
+
+        synchronized (this.viewers) {
+            if (this.viewers.isEmpty()) {
+                return new ArrayList<>(0);
+            }
+
+            snapshot = (BitSet) this.viewers.clone();
+        }
+
+        List<ServerPlayer> players = new ArrayList<>(snapshot.cardinality());
+
+        for (int index = snapshot.nextSetBit(0); index >= 0; index = snapshot.nextSetBit(index + 1)) {
+            ServerPlayer player = PlayerSessionIndex.getPlayer(index);
+
+            if (player != null) {
+                players.add(player);
+            }
+        }
+
+        return players;
+    }
+}
@@ -0,0 +1,84 @@
+package com.strictgaming.elite.holograms.neo26.hologram.entity;
+
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.PositionMoveRotation;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Builds the packets for a hologram line straight from its {@link LineDescriptor}, without an armor stand to read
+ * them from. Nothing here touches the world, so the packets can be built on any thread
+ */
+public final class HologramPackets {
+
+    // Entity data ids, these belong to Entity so they're the same for every entity type
+    private static final int SHARED_FLAGS_DATA_ID = 0;
+    private static final int CUSTOM_NAME_DATA_ID = 2;
+    private static final int CUSTOM_NAME_VISIBLE_DATA_ID = 3;
+    private static final int SILENT_DATA_ID = 4;
+    private static final int NO_GRAVITY_DATA_ID = 5;
+    private static final byte INVISIBLE_FLAG = 0x20;
+
+    // Sent once when a line is spawned and never changed, so it's only built once. The armor stand's marker flag is
+    // left off, a marker has no height so the client would draw the name about two blocks lower
+    private static final List<SynchedEntityData.DataValue<?>> STATIC_DATA = List.of(
+        new SynchedEntityData.DataValue<>(SHARED_FLAGS_DATA_ID, EntityDataSerializers.BYTE, INVISIBLE_FLAG),
+        new SynchedEntityData.DataValue<>(SILENT_DATA_ID, EntityDataSerializers.BOOLEAN, true),
+        new SynchedEntityData.DataValue<>(NO_GRAVITY_DATA_ID, EntityDataSerializers.BOOLEAN, true)
+    );
+
+    private HologramPackets() {
+    }
+
+    public static ClientboundAddEntityPacket spawn(LineDescriptor line) {
+        return new ClientboundAddEntityPacket(
+            line.entityId,
+            line.uuid,
+            line.x,
+            line.y,
+            line.z,
+            0.0F,
+            0.0F,
+            EntityType.ARMOR_STAND,
+            0,
+            Vec3.ZERO,
+            0.0D
+        );
+    }
+
+    /**
+     * Builds the name packet, along with the data that makes the armor stand a hologram when the line was just spawned
+     */
+    public static ClientboundSetEntityDataPacket data(LineDescriptor line, boolean initial) {
+        List<SynchedEntityData.DataValue<?>> values = new ArrayList<>(STATIC_DATA.size() + 2);
+        if (initial) {
+            values.addAll(STATIC_DATA);
+        }
+        values.add(new SynchedEntityData.DataValue<>(CUSTOM_NAME_DATA_ID, EntityDataSerializers.OPTIONAL_COMPONENT, Optional.of(line.name)));
+        values.add(new SynchedEntityData.DataValue<>(CUSTOM_NAME_VISIBLE_DATA_ID, EntityDataSerializers.BOOLEAN, line.nameVisible));
+        return new ClientboundSetEntityDataPacket(line.entityId, values);
+    }
+
+    public static ClientboundTeleportEntityPacket teleport(LineDescriptor line) {
+        return new ClientboundTeleportEntityPacket(
+            line.entityId,
+            new PositionMoveRotation(
+                new Vec3(line.x, line.y, line.z),
+                Vec3.ZERO,
+                0.0F,
+                0.0F
+            ),
+            Set.of(),
+            false
+        );
+    }
+}
@@ -2,16 +2,15 @@ package com.strictgaming.elite.holograms.neo26.hologram.implementation;
 
 import com.strictgaming.elite.holograms.api.hologram.Hologram;
 import com.strictgaming.elite.holograms.neo26.Neo26Holograms;
+import com.strictgaming.elite.holograms.neo26.hologram.AnimationWheel;
 import com.strictgaming.elite.holograms.neo26.hologram.HologramManager;
+import com.strictgaming.elite.holograms.neo26.hologram.ViewerSet;
 import com.strictgaming.elite.holograms.neo26.hologram.entity.AnimatedHologramLine;
 import com.strictgaming.elite.holograms.neo26.hologram.entity.HologramLine;
-import com.strictgaming.elite.holograms.neo26.util.UtilChatColour;
-import com.strictgaming.elite.holograms.neo26.util.UtilPlaceholder;
 
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
-import net.minecraft.world.entity.decoration.ArmorStand;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.level.Level;
 import net.minecraft.server.level.ServerLevel;
@@ -26,8 +25,6 @@ import java.util.List;
 import java.util.UUID;
 import java.util.Map;
 import java.util.HashMap;
-import java.io.IOException;
-import java.util.Collections;
 import java.util.stream.Collectors;
 
 /**
@@ -37,7 +34,6 @@ public class NeoForgeHologram implements Hologram {
     
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final double LINE_SPACING = 0.25;
-    private static int nextEntityId = -2000000000; 
     
     private final String id;
     private String world;
@@ -51,7 +47,7 @@ public class NeoForgeHologram implements Hologram {
     // Live entities
     private final List<HologramLine> hologramLines = new ArrayList<>();
     
-    private final List<UUID> nearbyPlayers = Collections.synchronizedList(new ArrayList<>());
+    private final ViewerSet nearbyPlayers = new ViewerSet();
     private boolean spawned = false;
     
     // Placeholder refresh: update static lines every 20 ticks (1 second)
@@ -67,7 +63,12 @@ public class NeoForgeHologram implements Hologram {
         }
     }
     
-    public NeoForgeHologram(String id, String world, double x, double y, double z, List<String> lines) {
+    /**
+     * Creates the hologram and registers it with the manager
+     *
+     * @param lines The line content, text lines as strings and animated lines as {@link AnimatedLineData}
+     */
+    public NeoForgeHologram(String id, String world, double x, double y, double z, List<?> lines) {
         this.id = id;
         this.world = world;
         this.x = x;
@@ -82,21 +83,15 @@ public class NeoForgeHologram implements Hologram {
         rebuildHologramLines();
     }
     
-    // Constructor for loading from config which might have complex data manually handled later, 
-    // but for now standard constructor handles Strings. 
-    // Complex lines must be added via addAnimatedLine or setLineAnimated after creation if not supported in constructor.
-    
     private void rebuildHologramLines() {
-        for (UUID playerUUID : new ArrayList<>(nearbyPlayers)) {
-            ServerPlayer player = getPlayerByUUID(playerUUID);
-            if (player != null) {
-                hologramLines.forEach(line -> line.despawnFromPlayer(player));
-            }
+        for (ServerPlayer player : nearbyPlayers.getPlayers()) {
+            hologramLines.forEach(line -> line.despawnFromPlayer(player));
         }
 
+        // Nobody sees the old lines anymore, so the new ones can take their entity ids
+        hologramLines.forEach(HologramLine::release);
         hologramLines.clear();
-        ServerLevel level = getServerLevel();
-        if (level == null) {
+        if (getServerLevel() == null) {
             return;
         }
 
@@ -105,23 +100,12 @@ public class NeoForgeHologram implements Hologram {
             HologramLine line;
             if (content instanceof AnimatedLineData) {
                 AnimatedLineData data = (AnimatedLineData) content;
-                // Create ArmorStand manually to pass to AnimatedHologramLine
-                // We need a helper since HologramLine usually creates it
-                // Actually, AnimatedHologramLine extends HologramLine, so we can just instantiate it
-                // But AnimatedHologramLine constructor takes ArmorStand.
-                // We should change AnimatedHologramLine to take Level, x,y,z like HologramLine?
-                // Or create ArmorStand here.
-                ArmorStand as = new ArmorStand(level, this.x, currentY, this.z);
-                as.setId(getNextEntityId());
-                configureArmorStand(as);
-                // Set initial name
-                String initialText = data.frames.isEmpty() ? "" : data.frames.get(0);
-                as.setCustomName(UtilChatColour.parse(UtilPlaceholder.replacePlaceholders(initialText, null)));
-                
-                line = new AnimatedHologramLine(as, data.frames, data.interval * 20); // interval is seconds usually, convert to ticks
+                AnimatedHologramLine animated = new AnimatedHologramLine(this.x, currentY, this.z, data.frames, data.interval * 20); // interval is seconds usually, convert to ticks
+                AnimationWheel.register(this, animated);
+                line = animated;
             } else {
                 String text = (content != null) ? content.toString() : "";
-                line = new HologramLine(level, this.x, currentY, this.z, text);
+                line = new HologramLine(this.x, currentY, this.z, text);
             }
             
             hologramLines.add(line);
@@ -129,29 +113,12 @@ public class NeoForgeHologram implements Hologram {
         }
 
         if (this.spawned) {
-            for (UUID playerUUID : new ArrayList<>(nearbyPlayers)) {
-                ServerPlayer player = getPlayerByUUID(playerUUID);
-                if (player != null) {
-                    hologramLines.forEach(line -> line.spawnToPlayer(player));
-                }
+            for (ServerPlayer player : nearbyPlayers.getPlayers()) {
+                hologramLines.forEach(line -> line.spawnToPlayer(player));
             }
         }
     }
     
-    private void configureArmorStand(ArmorStand armorStand) {
-        armorStand.setInvisible(true);
-        armorStand.setNoGravity(true);
-        armorStand.setCustomNameVisible(true);
-        armorStand.setSilent(true);
-        armorStand.setInvulnerable(true);
-        armorStand.getPersistentData().putBoolean("Marker", true);
-        armorStand.addTag("spectral_vision_unaffected");
-    }
-
-    private static synchronized int getNextEntityId() {
-        return nextEntityId++;
-    }
-
     @Override
     public String getId() {
         return id;
@@ -281,13 +248,10 @@ public class NeoForgeHologram implements Hologram {
     @Override
     public void setPosition(String world, double x, double y, double z) {
         boolean worldChanged = !this.world.equals(world);
-        List<UUID> currentPlayers = new ArrayList<>(this.nearbyPlayers);
+        List<ServerPlayer> currentPlayers = this.nearbyPlayers.getPlayers();
 
         if (worldChanged && spawned) {
-             currentPlayers.forEach(uuid -> {
-                ServerPlayer p = getPlayerByUUID(uuid);
-                if (p != null) despawnForPlayer(p);
-            });
+            currentPlayers.forEach(this::despawnForPlayer);
             nearbyPlayers.clear();
         }
 
@@ -313,14 +277,10 @@ public class NeoForgeHologram implements Hologram {
                     });
                 }
             } else {
-                currentPlayers.forEach(uuid -> {
-                    ServerPlayer p = getPlayerByUUID(uuid);
-                    if (p != null) {
-                         hologramLines.forEach(hl -> hl.sendTeleportPacket(p));
-                    }
-                });
+                currentPlayers.forEach(p -> hologramLines.forEach(hl -> hl.sendTeleportPacket(p)));
             }
         }
+        HologramManager.invalidateVisibility();
         saveToConfig();
     }
     
@@ -343,28 +303,29 @@ public class NeoForgeHologram implements Hologram {
     public void despawn() {
         if (!this.spawned) return;
         this.spawned = false;
-        new ArrayList<>(nearbyPlayers).forEach(uuid -> {
-            ServerPlayer player = getPlayerByUUID(uuid);
-            if (player != null) {
-                despawnForPlayer(player);
-            }
-        });
+        nearbyPlayers.getPlayers().forEach(this::despawnForPlayer);
         LOGGER.debug("Hologram {} marked as despawned/inactive.", id);
     }
     
     public void spawnForPlayer(ServerPlayer player) {
-        if (player == null || !this.spawned || nearbyPlayers.contains(player.getUUID())) {
+        if (player == null || !this.spawned || nearbyPlayers.contains(player)) {
             return;
         }
         if (!isPlayerInCorrectWorld(player)) return;
 
         LOGGER.debug("Spawning hologram {} for player {}", id, player.getName().getString());
-        hologramLines.forEach(line -> line.spawnToPlayer(player));
-        nearbyPlayers.add(player.getUUID());
+        for (HologramLine line : hologramLines) {
+            if (line instanceof AnimatedHologramLine animated) {
+                // Animations stand still while nobody sees them, catch up to the frame the clock is at
+                AnimationWheel.resume(animated);
+            }
+            line.spawnToPlayer(player);
+        }
+        nearbyPlayers.add(player);
     }
 
     public void despawnForPlayer(ServerPlayer player) {
-        if (player == null || !nearbyPlayers.remove(player.getUUID())) {
+        if (player == null || !nearbyPlayers.remove(player)) {
             return;
         }
         LOGGER.debug("Despawning hologram {} for player {}", id, player.getName().getString());
@@ -372,7 +333,7 @@ public class NeoForgeHologram implements Hologram {
     }
 
     public void updateTextForPlayer(ServerPlayer player) {
-        if (player == null || !this.spawned || !nearbyPlayers.contains(player.getUUID())) {
+        if (player == null || !this.spawned || !nearbyPlayers.contains(player)) {
             return;
         }
         if (!isPlayerInCorrectWorld(player)) {
@@ -381,58 +342,63 @@ public class NeoForgeHologram implements Hologram {
         }
         // Normal lines don't need constant updates unless we really want dynamic placeholders every tick
         // But Animated lines do.
-        // Actually, AnimatedHologramLine.updateForPlayer is called by tick()
+        // Actually, AnimatedHologramLine.updateForPlayer is called by the AnimationWheel
         // This method is for periodic full refresh?
         // neo26 HologramManager calls this in handlePlayerMove if nearby&visible
         
-        // For compatibility with Animated lines, we should let tick() handle them.
+        // For compatibility with Animated lines, we should let the AnimationWheel handle them.
         // For static lines with placeholders, we can update here.
         
         hologramLines.forEach(line -> {
-            if (!(line instanceof AnimatedHologramLine)) { // Don't spam animated lines here, tick handles them
+            if (!(line instanceof AnimatedHologramLine)) { // Don't spam animated lines here, the AnimationWheel handles them
                 line.updateForPlayer(player, false);
             }
         });
     }
     
-    public void tick() {
-        // Tick animated lines
+    /**
+     * Counts a tick towards the next placeholder refresh, returns true once the lines are due to be refreshed
+     */
+    public boolean tickPlaceholders() {
+        placeholderTickCounter++;
+        if (placeholderTickCounter < PLACEHOLDER_REFRESH_INTERVAL) {
+            return false;
+        }
+        placeholderTickCounter = 0;
+        return true;
+    }
+
+    /**
+     * Refreshes static lines so placeholders like %players%, %tps% stay current
+     */
+    public void refreshPlaceholders() {
         for (HologramLine line : hologramLines) {
-            if (line instanceof AnimatedHologramLine animated) {
-                if (animated.tick()) {
-                     for (UUID uuid : nearbyPlayers) {
-                         ServerPlayer p = getPlayerByUUID(uuid);
-                         if (p != null) animated.updateForPlayer(p, false);
-                     }
+            // Lines without placeholders never change between refreshes
+            if (!(line instanceof AnimatedHologramLine) && line.hasPlaceholders()) {
+                for (ServerPlayer p : nearbyPlayers.getPlayers()) {
+                    line.updateForPlayer(p, false);
                 }
             }
         }
-        
-        // Periodically refresh static lines so placeholders like %players%, %tps% stay current
-        placeholderTickCounter++;
-        if (placeholderTickCounter >= PLACEHOLDER_REFRESH_INTERVAL) {
-            placeholderTickCounter = 0;
-            for (HologramLine line : hologramLines) {
-                if (!(line instanceof AnimatedHologramLine)) {
-                    for (UUID uuid : new ArrayList<>(nearbyPlayers)) {
-                        ServerPlayer p = getPlayerByUUID(uuid);
-                        if (p != null) {
-                            line.updateForPlayer(p, false);
-                        }
-                    }
-                }
-            }
+    }
+
+    /**
+     * Gets the squared distance to the nearest player the hologram is shown to, or {@link Double#MAX_VALUE} if nobody
+     * is, so the scheduler can run the work of the holograms players are closest to first
+     */
+    public double getNearestViewerDistance() {
+        double nearest = Double.MAX_VALUE;
+        for (ServerPlayer player : nearbyPlayers.getPlayers()) {
+            nearest = Math.min(nearest, player.distanceToSqr(x, y, z));
         }
+        return nearest;
     }
     
     @Override
     public void update() {
         if (!spawned) return;
         
-        List<ServerPlayer> currentViewers = nearbyPlayers.stream()
-            .map(this::getPlayerByUUID)
-            .filter(java.util.Objects::nonNull)
-            .collect(Collectors.toList());
+        List<ServerPlayer> currentViewers = nearbyPlayers.getPlayers();
             
         hologramLines.forEach(line -> currentViewers.forEach(line::despawnFromPlayer));
         
@@ -447,7 +413,14 @@ public class NeoForgeHologram implements Hologram {
     }
     
     public boolean isVisibleTo(ServerPlayer player) {
-        return player != null && nearbyPlayers.contains(player.getUUID());
+        return player != null && nearbyPlayers.contains(player);
+    }
+
+    /**
+     * Gives the entity ids of the lines back once the hologram is gone, it has to be despawned first
+     */
+    public void releaseEntityIds() {
+        hologramLines.forEach(HologramLine::release);
     }
 
     @Override
@@ -469,12 +442,22 @@ public class NeoForgeHologram implements Hologram {
         return distSq <= (64 * 64);
     }
 
-    private ServerPlayer getPlayerByUUID(UUID uuid) {
-        return ServerLifecycleHooks.getCurrentServer() != null ? ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayer(uuid) : null;
-    }
-    
     public List<UUID> getNearbyPlayersView() {
-        return new ArrayList<>(nearbyPlayers);
+        return nearbyPlayers.getPlayers().stream().map(ServerPlayer::getUUID).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets how many lines this hologram has
+     */
+    public int getLineCount() {
+        return hologramLines.size();
+    }
+
+    /**
+     * Gets a snapshot of the online players this hologram is currently shown to
+     */
+    public List<ServerPlayer> getViewers() {
+        return nearbyPlayers.getPlayers();
     }
 
     private ServerLevel getServerLevel() {
@@ -491,11 +474,7 @@ public class NeoForgeHologram implements Hologram {
     }
 
     private void saveToConfig() {
-        try {
-            HologramManager.save();
-        } catch (IOException e) {
-            LOGGER.error("Failed to save hologram {} to config", id, e);
-        }
+        HologramManager.save(id);
     }
 
     private void updateHologramContent(Runnable contentUpdater) {
@@ -505,11 +484,55 @@ public class NeoForgeHologram implements Hologram {
     }
 
     /**
-     * Updates hologram content and rebuilds lines without triggering a config save.
+     * Changes the text lines to the given texts without triggering a config save, reusing the lines that are already
+     * there. A line whose text didn't change sends nothing, one whose text changed only sends its new name, and lines
+     * are only spawned or despawned when the number of lines changes.
      * Used by ScoreboardHologram for ephemeral display updates that don't need persistence.
      */
-    protected void updateHologramContentNoSave(Runnable contentUpdater) {
-        contentUpdater.run();
-        rebuildHologramLines();
+    protected void updateLinesInPlace(List<String> texts) {
+        // The lines haven't been built, or don't match the content, so there's nothing to reuse
+        if (hologramLines.size() != linesContent.size() || getServerLevel() == null) {
+            linesContent.clear();
+            linesContent.addAll(texts);
+            rebuildHologramLines();
+            return;
+        }
+
+        List<ServerPlayer> viewers = spawned ? nearbyPlayers.getPlayers() : List.of();
+        int common = Math.min(hologramLines.size(), texts.size());
+
+        for (int i = 0; i < common; i++) {
+            String text = texts.get(i);
+            HologramLine line = hologramLines.get(i);
+            if (text.equals(linesContent.get(i))) {
+                continue;
+            }
+
+            linesContent.set(i, text);
+            if (line instanceof AnimatedHologramLine) {
+                // An animated line can't show plain text, so this one row is replaced
+                viewers.forEach(line::despawnFromPlayer);
+                line.release();
+                line = new HologramLine(this.x, this.y - i * LINE_SPACING, this.z, text);
+                hologramLines.set(i, line);
+                viewers.forEach(line::spawnToPlayer);
+            } else {
+                line.updateRawTextAndRefresh(text, viewers);
+            }
+        }
+
+        while (hologramLines.size() > texts.size()) {
+            HologramLine line = hologramLines.remove(hologramLines.size() - 1);
+            linesContent.remove(linesContent.size() - 1);
+            viewers.forEach(line::despawnFromPlayer);
+            line.release();
+        }
+
+        for (int i = hologramLines.size(); i < texts.size(); i++) {
+            HologramLine line = new HologramLine(this.x, this.y - i * LINE_SPACING, this.z, texts.get(i));
+            linesContent.add(texts.get(i));
+            hologramLines.add(line);
+            viewers.forEach(line::spawnToPlayer);
+        }
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.strictgaming.elite.holograms.neo26.util;
+
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+
+/**
+ * Converts the Adventure components produced by MiniMessage and the legacy serializer straight into
+ * vanilla components, without serializing them to JSON and parsing that JSON back.
+ * Only plain text with colours and decorations is handled, which is everything hologram text uses. Anything
+ * else (translatable, keybind, score, click/hover events, fonts) returns null so the caller can fall back to JSON
+ */
+public final class AdventureComponentConverter {
+
+    private AdventureComponentConverter() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Converts the Adventure component to a vanilla component
+     *
+     * @param component The Adventure component
+     * @return The vanilla component, or null if the component uses something that isn't supported here
+     */
+    public static MutableComponent toVanilla(net.kyori.adventure.text.Component component) {
+        if (!(component instanceof TextComponent text)) {
+            return null;
+        }
+
+        Style style = toVanilla(text.style());
+
+        if (style == null) {
+            return null;
+        }
+
+        MutableComponent result = Component.literal(text.content()).setStyle(style);
+
+        for (net.kyori.adventure.text.Component child : text.children()) {
+            MutableComponent converted = toVanilla(child);
+
+            if (converted == null) {
+                return null;
+            }
+
+            result.append(converted);
+        }
+
+        return result;
+    }
+
+    private static Style toVanilla(net.kyori.adventure.text.format.Style style) {
+        if (style.clickEvent() != null || style.hoverEvent() != null || style.font() != null) {
+            return null;
+        }
+
+        Style result = Style.EMPTY;
+
+        if (style.color() != null) {
+            result = result.withColor(TextColor.fromRgb(style.color().value()));
+        }
+
+        return result.withBold(toVanilla(style.decoration(TextDecoration.BOLD)))
+                .withItalic(toVanilla(style.decoration(TextDecoration.ITALIC)))
+                .withUnderlined(toVanilla(style.decoration(TextDecoration.UNDERLINED)))
+                .withStrikethrough(toVanilla(style.decoration(TextDecoration.STRIKETHROUGH)))
+                .withObfuscated(toVanilla(style.decoration(TextDecoration.OBFUSCATED)))
+                .withInsertion(style.insertion());
+    }
+
+    private static Boolean toVanilla(TextDecoration.State state) {
+        switch (state) {
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+}